@@ -5,7 +5,29 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Limits calls to the annotated endpoint to {@code capacity} per {@code refillPeriodSeconds} for each caller, as
+ * identified by {@link #key()}. Endpoints sharing a {@link #name()} share their buckets.
+ */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Ratelimited {
-}
\ No newline at end of file
+
+    /** Policy name; defaults to the annotated method. */
+    String name() default "";
+
+    long capacity() default 10;
+
+    long refillPeriodSeconds() default 60;
+
+    KeyStrategy key() default KeyStrategy.IP;
+
+    enum KeyStrategy {
+        /** The authenticated username, falling back to the IP for anonymous calls. */
+        USER,
+        /** The remote address. */
+        IP,
+        /** The bearer token's id, falling back to the IP when there is no valid token. */
+        TOKEN
+    }
+}
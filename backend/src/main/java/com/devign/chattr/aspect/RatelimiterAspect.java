@@ -1,15 +1,17 @@
 package com.devign.chattr.aspect;
 
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.distributed.proxy.ProxyManager;
-import com.devign.chattr.config.RatelimiterConfig;
+import com.devign.chattr.service.RateLimiterService;
+import com.devign.chattr.util.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import java.io.IOException;
-import java.util.UUID;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -17,29 +19,28 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 @Component
 @Aspect
 public class RatelimiterAspect {
-    private final RatelimiterConfig ratelimiterConfig;
-    private final ProxyManager<String> proxyManager;
+    private final RateLimiterService rateLimiterService;
+    // Keyed by method: equal annotations on two unnamed endpoints must not share one policy name and bucket.
+    private final Map<Method, RateLimiterService.Policy> policies = new ConcurrentHashMap<>();
 
-    public RatelimiterAspect(RatelimiterConfig ratelimiterConfig, ProxyManager<String> proxyManager) {
-        this.ratelimiterConfig = ratelimiterConfig;
-        this.proxyManager = proxyManager;
+    public RatelimiterAspect(RateLimiterService rateLimiterService) {
+        this.rateLimiterService = rateLimiterService;
     }
 
-    @Around("@annotation(com.devign.chattr.aspect.Ratelimited)")
-    public Object ratelimit(ProceedingJoinPoint joinPoint) throws Throwable {
-        HttpServletRequest request = ((ServletRequestAttributes) 
+    @Around("@annotation(ratelimited)")
+    public Object ratelimit(ProceedingJoinPoint joinPoint, Ratelimited ratelimited) throws Throwable {
+        HttpServletRequest request = ((ServletRequestAttributes)
             RequestContextHolder.getRequestAttributes()).getRequest();
-        HttpServletResponse response = ((ServletRequestAttributes) 
+        HttpServletResponse response = ((ServletRequestAttributes)
             RequestContextHolder.getRequestAttributes()).getResponse();
-        
-        String clientKey = request.getHeader("clientId");
-        if (clientKey == null) {
-            clientKey = request.getRemoteAddr() != null ? request.getRemoteAddr() : UUID.randomUUID().toString();
-        }
-        
-        Bucket bucket = getOrCreateBucket(clientKey);
 
-        if (bucket.tryConsume(1)) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        RateLimiterService.Policy policy = policies.computeIfAbsent(method, key -> new RateLimiterService.Policy(
+                ratelimited.name().isEmpty() ? joinPoint.getSignature().toShortString() : ratelimited.name(),
+                ratelimited.capacity(),
+                Duration.ofSeconds(ratelimited.refillPeriodSeconds())));
+
+        if (rateLimiterService.tryConsume(policy, clientKey(request, ratelimited.key()))) {
             return joinPoint.proceed();
         } else {
             if (response != null) {
@@ -53,8 +54,26 @@ public class RatelimiterAspect {
         }
     }
 
-    private Bucket getOrCreateBucket(String clientKey) {
-        return proxyManager.builder()
-                .build(clientKey, ratelimiterConfig.bucketConfiguration());
+    private String clientKey(HttpServletRequest request, Ratelimited.KeyStrategy strategy) {
+        String ip = "ip:" + request.getRemoteAddr();
+        switch (strategy) {
+            case USER -> {
+                Object username = request.getAttribute("username");
+                return username != null ? "user:" + username : ip;
+            }
+            case TOKEN -> {
+                String header = request.getHeader("Authorization");
+                if (header != null && header.startsWith("Bearer ")) {
+                    JwtUtil.VerifiedToken token = JwtUtil.verifyToken(header.substring(7));
+                    if (token != null) {
+                        return "token:" + token.tokenId();
+                    }
+                }
+                return ip;
+            }
+            default -> {
+                return ip;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package com.devign.chattr.config;
+
+import com.devign.chattr.service.PayloadEncodingService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+
+import java.io.IOException;
+
+/**
+ * STOMP frames go out as text WebSocket frames unless their content type is {@code application/octet-stream}.
+ * For sessions that negotiated CBOR the frame bytes are sent as a binary frame instead, since a CBOR body is not
+ * valid UTF-8. Native WebSocket sessions are marked as able to take binary frames; SockJS sessions are not.
+ */
+@Component
+public class BinaryFrameHandlerDecorator implements WebSocketHandlerDecoratorFactory {
+
+    private final PayloadEncodingService payloadEncodingService;
+
+    public BinaryFrameHandlerDecorator(PayloadEncodingService payloadEncodingService) {
+        this.payloadEncodingService = payloadEncodingService;
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                if (session instanceof SockJsSession) {
+                    super.afterConnectionEstablished(session);
+                    return;
+                }
+                session.getAttributes().put(PayloadEncodingService.BINARY_FRAMES_ATTRIBUTE, Boolean.TRUE);
+                super.afterConnectionEstablished(new BinaryFrameSession(session));
+            }
+        };
+    }
+
+    private class BinaryFrameSession extends WebSocketSessionDecorator {
+
+        BinaryFrameSession(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            if (message instanceof TextMessage text && payloadEncodingService.isCbor(getId())) {
+                message = new BinaryMessage(text.asBytes());
+            }
+            super.sendMessage(message);
+        }
+    }
+}
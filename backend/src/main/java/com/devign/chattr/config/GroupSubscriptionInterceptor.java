@@ -0,0 +1,63 @@
+package com.devign.chattr.config;
+
+import com.devign.chattr.service.GroupMembershipIndex;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Only lets members subscribe to a group's topic, {@code /topic/group.{groupId}}.
+ * <p>
+ * The simple broker matches subscriptions as Ant patterns, so {@code /topic/*} or {@code /topic/group.?} would
+ * receive every group's messages. Topic subscriptions must therefore name one exact destination.
+ */
+@Component
+public class GroupSubscriptionInterceptor implements ChannelInterceptor {
+
+    public static final String GROUP_TOPIC_PREFIX = "/topic/group.";
+    static final String TOPIC_PREFIX = "/topic/";
+
+    private final GroupMembershipIndex groupMembershipIndex;
+
+    public GroupSubscriptionInterceptor(GroupMembershipIndex groupMembershipIndex) {
+        this.groupMembershipIndex = groupMembershipIndex;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.SUBSCRIBE) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination != null && destination.startsWith(TOPIC_PREFIX) && isPattern(destination)) {
+            throw new AccessDeniedException("Wildcard subscriptions are not allowed: " + destination);
+        }
+        if (destination == null || !destination.startsWith(GROUP_TOPIC_PREFIX)) {
+            return message;
+        }
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        Long groupId = parseGroupId(destination.substring(GROUP_TOPIC_PREFIX.length()));
+        if (user == null || groupId == null || !groupMembershipIndex.isMember(groupId, user.getName())) {
+            throw new AccessDeniedException("Not a member of " + destination);
+        }
+        return message;
+    }
+
+    private static boolean isPattern(String destination) {
+        return destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0 || destination.indexOf('{') >= 0;
+    }
+
+    private static Long parseGroupId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
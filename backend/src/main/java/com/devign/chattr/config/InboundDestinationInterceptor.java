@@ -0,0 +1,38 @@
+package com.devign.chattr.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Clients may only SEND to {@code /app} destinations. Without this the simple broker would accept frames sent
+ * straight to {@code /topic}, {@code /queue} or {@code /user} destinations (the user destination handler resolves
+ * inbound {@code /user/{name}/...} frames too), skipping the controllers' membership checks and their rule that
+ * the sender is the authenticated principal.
+ * <p>
+ * Private queues are only reachable through {@code /user/queue/...}; subscribing to the resolved
+ * {@code /queue/...-user{sessionId}} destination directly would read another session's messages.
+ */
+@Component
+public class InboundDestinationInterceptor implements ChannelInterceptor {
+
+    static final String APPLICATION_PREFIX = "/app/";
+    static final String QUEUE_PREFIX = "/queue/";
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (type == SimpMessageType.MESSAGE && (destination == null || !destination.startsWith(APPLICATION_PREFIX))) {
+            throw new AccessDeniedException("Clients may only send to " + APPLICATION_PREFIX + " destinations");
+        }
+        if (type == SimpMessageType.SUBSCRIBE && destination != null && destination.startsWith(QUEUE_PREFIX)) {
+            throw new AccessDeniedException("Subscribe to /user" + destination + " instead");
+        }
+        return message;
+    }
+}
@@ -0,0 +1,63 @@
+package com.devign.chattr.config;
+
+import com.devign.chattr.service.PayloadEncodingService;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Sits on both client channels. Inbound, it records the payload encoding a session asks for on CONNECT;
+ * outbound, it re-encodes JSON message payloads as CBOR for sessions that were granted it.
+ */
+@Component
+public class PayloadEncodingInterceptor implements ChannelInterceptor {
+
+    private final PayloadEncodingService payloadEncodingService;
+
+    public PayloadEncodingInterceptor(PayloadEncodingService payloadEncodingService) {
+        this.payloadEncodingService = payloadEncodingService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (type == SimpMessageType.CONNECT) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+            if (accessor.getCommand() == StompCommand.CONNECT || accessor.getCommand() == StompCommand.STOMP) {
+                payloadEncodingService.negotiate(accessor.getSessionId(), accessor.getSessionAttributes(),
+                        requestedContentType(accessor));
+            }
+            return message;
+        }
+        if (type != SimpMessageType.MESSAGE || !(message.getPayload() instanceof byte[] json)
+                || !payloadEncodingService.isCbor(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()))) {
+            return message;
+        }
+        MessageHeaderAccessor accessor = MessageHeaderAccessor.getMutableAccessor(message);
+        MimeType contentType = accessor.getContentType();
+        if (contentType == null || !MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(contentType)) {
+            return message;
+        }
+        accessor.setContentType(PayloadEncodingService.APPLICATION_CBOR);
+        return MessageBuilder.createMessage(payloadEncodingService.toCbor(json), accessor.getMessageHeaders());
+    }
+
+    private static MimeType requestedContentType(StompHeaderAccessor accessor) {
+        String requested = accessor.getFirstNativeHeader(StompHeaderAccessor.STOMP_CONTENT_TYPE_HEADER);
+        try {
+            return requested == null ? null : MimeTypeUtils.parseMimeType(requested);
+        } catch (InvalidMimeTypeException e) {
+            return null; // stay on JSON
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.devign.chattr.config;
+
+import com.devign.chattr.service.PresenceService;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Counts every inbound STOMP frame, heartbeats included, as proof that the sender's connection is alive.
+ */
+@Component
+public class PresenceInterceptor implements ChannelInterceptor {
+
+    private final PresenceService presenceService;
+
+    public PresenceInterceptor(PresenceService presenceService) {
+        this.presenceService = presenceService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        if (user != null) {
+            presenceService.touch(user.getName());
+        }
+        return message;
+    }
+}
@@ -1,13 +1,8 @@
 package com.devign.chattr.config;
 
-import java.time.Duration;
-import java.util.function.Supplier;
-
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.distributed.proxy.ProxyManager;
 import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
 import io.lettuce.core.RedisClient;
@@ -37,11 +32,4 @@ public ProxyManager<String> lettuceBasedProxyManager() {
             .build();
 }
 
-
-    @Bean
-    public Supplier<BucketConfiguration> bucketConfiguration() {
-        return ()-> BucketConfiguration.builder()
-                .addLimit(Bandwidth.simple(10L, Duration.ofMinutes(1L)))
-                .build();
-    }
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package com.devign.chattr.config;
 
-import com.devign.chattr.util.JwtUtil;
+import com.devign.chattr.service.TokenRevocationService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,10 +17,10 @@ import java.util.Collections;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, TokenRevocationService tokenRevocationService) throws Exception {
         http.csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(authz -> authz
-                .requestMatchers("/api/v1/auth/**", "/api/v1/users/**").permitAll()
+                .requestMatchers("/api/v1/auth/**", "/api/v1/users/**", "/ws/**", "/ws-native").permitAll()
                 .anyRequest().authenticated()
             )
             .addFilterBefore((request, response, chain) -> {
@@ -28,7 +28,7 @@ public class SecurityConfig {
                 String header = httpRequest.getHeader("Authorization");
                 if (header != null && header.startsWith("Bearer ")) {
                     String token = header.substring(7);
-                    String username = JwtUtil.validateToken(token);
+                    String username = tokenRevocationService.authenticate(token);
                     if (username != null) {
                         UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(username, null, Collections.emptyList());
                         httpRequest.setAttribute("username", username);
@@ -0,0 +1,68 @@
+package com.devign.chattr.config;
+
+import com.devign.chattr.service.RateLimiterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Applies per-user rate limits to inbound STOMP SEND frames, dropping frames over the limit before any handler
+ * runs. Interceptors run inside the inbound channel's {@code send}, and with receive order preserved that call
+ * comes from the transport thread for a session's first queued frame but from the inbound executor (a pool or
+ * virtual thread) for the frames released after it. The check can therefore hold an executor thread, including
+ * for a remote bucket's Redis round trip, so it must stay non-blocking apart from that.
+ */
+@Component
+public class StompRateLimitInterceptor implements ChannelInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(StompRateLimitInterceptor.class);
+
+    private final RateLimiterService rateLimiterService;
+    private final Map<String, RateLimiterService.Policy> policies;
+
+    public StompRateLimitInterceptor(RateLimiterService rateLimiterService,
+                                     @Value("${chattr.ratelimit.stomp.chat-per-second:10}") long chatPerSecond,
+                                     @Value("${chattr.ratelimit.stomp.group-per-second:10}") long groupPerSecond,
+                                     @Value("${chattr.ratelimit.stomp.signals-per-second:20}") long signalsPerSecond) {
+        this.rateLimiterService = rateLimiterService;
+        RateLimiterService.Policy signals = perSecond("stomp-signals", signalsPerSecond);
+        this.policies = Map.of(
+                "/app/chat", perSecond("stomp-chat", chatPerSecond),
+                "/app/group", perSecond("stomp-group", groupPerSecond),
+                "/app/typing", signals,
+                "/app/status", signals,
+                "/app/seen", signals);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        RateLimiterService.Policy policy = destination != null ? policies.get(destination) : null;
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        if (policy == null || user == null) {
+            return message;
+        }
+        if (!rateLimiterService.tryConsume(policy, "user:" + user.getName())) {
+            log.debug("Dropping {} frame from {}: rate limit exceeded", destination, user.getName());
+            return null;
+        }
+        return message;
+    }
+
+    private static RateLimiterService.Policy perSecond(String name, long capacity) {
+        return new RateLimiterService.Policy(name, capacity, Duration.ofSeconds(1));
+    }
+}
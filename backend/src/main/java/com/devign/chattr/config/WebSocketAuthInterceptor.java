@@ -0,0 +1,50 @@
+package com.devign.chattr.config;
+
+import com.devign.chattr.service.TokenRevocationService;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+
+/**
+ * Authenticates STOMP CONNECT frames with the same bearer token as the REST API, so user destinations
+ * ({@code /user/queue/...}) can be routed by principal.
+ */
+@Component
+public class WebSocketAuthInterceptor implements ChannelInterceptor {
+
+    private final TokenRevocationService tokenRevocationService;
+
+    public WebSocketAuthInterceptor(TokenRevocationService tokenRevocationService) {
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        // CONNECT and STOMP frames both open a session and both arrive as SimpMessageType.CONNECT.
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getMessageType() != SimpMessageType.CONNECT) {
+            return message;
+        }
+
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            String username = tokenRevocationService.authenticate(header.substring(7));
+            if (username != null) {
+                accessor.setUser(new UsernamePasswordAuthenticationToken(username, null, Collections.emptyList()));
+            }
+        }
+
+        if (accessor.getUser() == null) {
+            throw new AccessDeniedException("Unauthenticated STOMP connection");
+        }
+        return message;
+    }
+}
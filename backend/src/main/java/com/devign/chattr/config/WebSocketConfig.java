@@ -1,23 +1,114 @@
 package com.devign.chattr.config;
 
+import com.devign.chattr.service.PayloadEncodingService;
+import com.devign.chattr.service.RedisBrokerRelay;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final WebSocketAuthInterceptor webSocketAuthInterceptor;
+    private final InboundDestinationInterceptor inboundDestinationInterceptor;
+    private final PresenceInterceptor presenceInterceptor;
+    private final StompRateLimitInterceptor stompRateLimitInterceptor;
+    private final GroupSubscriptionInterceptor groupSubscriptionInterceptor;
+    private final PayloadEncodingInterceptor payloadEncodingInterceptor;
+    private final BinaryFrameHandlerDecorator binaryFrameHandlerDecorator;
+    private final PayloadEncodingService payloadEncodingService;
+    private final ObjectProvider<RedisBrokerRelay> redisBrokerRelay;
+    private final long heartbeatMillis;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    public WebSocketConfig(WebSocketAuthInterceptor webSocketAuthInterceptor,
+                           InboundDestinationInterceptor inboundDestinationInterceptor,
+                           PresenceInterceptor presenceInterceptor,
+                           StompRateLimitInterceptor stompRateLimitInterceptor,
+                           GroupSubscriptionInterceptor groupSubscriptionInterceptor,
+                           PayloadEncodingInterceptor payloadEncodingInterceptor,
+                           BinaryFrameHandlerDecorator binaryFrameHandlerDecorator,
+                           PayloadEncodingService payloadEncodingService,
+                           ObjectProvider<RedisBrokerRelay> redisBrokerRelay,
+                           @Value("${chattr.presence.heartbeat-ms:10000}") long heartbeatMillis) {
+        this.webSocketAuthInterceptor = webSocketAuthInterceptor;
+        this.inboundDestinationInterceptor = inboundDestinationInterceptor;
+        this.presenceInterceptor = presenceInterceptor;
+        this.stompRateLimitInterceptor = stompRateLimitInterceptor;
+        this.groupSubscriptionInterceptor = groupSubscriptionInterceptor;
+        this.payloadEncodingInterceptor = payloadEncodingInterceptor;
+        this.binaryFrameHandlerDecorator = binaryFrameHandlerDecorator;
+        this.payloadEncodingService = payloadEncodingService;
+        this.redisBrokerRelay = redisBrokerRelay;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{heartbeatMillis, heartbeatMillis})
+                .setTaskScheduler(messageBrokerTaskScheduler);
         config.setApplicationDestinationPrefixes("/app");
+        config.setUserDestinationPrefix("/user");
+        // Boot backs both client channels with applicationTaskExecutor (a thread pool, or one virtual thread per
+        // task), and neither keeps a session's frames in order on its own.
+        config.setPreservePublishOrder(true);
+        // chattr.websocket.broker=redis relays /topic and /user destinations to the other nodes
+        redisBrokerRelay.ifAvailable(relay -> config.configureBrokerChannel().interceptors(relay));
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws").setAllowedOrigins("*").withSockJS();
+        // Plain WebSocket endpoint; binary payload encodings need it since SockJS only carries text.
+        registry.addEndpoint("/ws-native").setAllowedOrigins("*");
+        registry.setPreserveReceiveOrder(true);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(webSocketAuthInterceptor, inboundDestinationInterceptor, presenceInterceptor,
+                stompRateLimitInterceptor, groupSubscriptionInterceptor, payloadEncodingInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(payloadEncodingInterceptor);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(binaryFrameHandlerDecorator);
+    }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // SEND frames with content-type:application/cbor. Custom converters come before the defaults, so the CBOR
+        // one must not claim messages without a content-type; those (and every outbound payload) stay JSON.
+        MappingJackson2MessageConverter cbor = new MappingJackson2MessageConverter(PayloadEncodingService.APPLICATION_CBOR);
+        cbor.setObjectMapper(payloadEncodingService.getCborMapper());
+        cbor.setStrictContentTypeMatch(true);
+        messageConverters.add(cbor);
+        return true;
     }
-}
\ No newline at end of file
+}
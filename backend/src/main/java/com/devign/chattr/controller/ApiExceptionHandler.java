@@ -0,0 +1,25 @@
+package com.devign.chattr.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    /**
+     * A bounded worker pool (e.g. password hashing) is full; shed the request instead of queueing it.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<?> handleOverload(RejectedExecutionException e) {
+        return ResponseEntity.status(503)
+                .header("Retry-After", "1")
+                .body(Map.of(
+                        "status", "error",
+                        "message", "Server is busy, please retry shortly"
+                ));
+    }
+}
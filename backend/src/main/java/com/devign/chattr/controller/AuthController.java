@@ -2,17 +2,21 @@ package com.devign.chattr.controller;
 
 import com.devign.chattr.dto.UserRequest;
 import com.devign.chattr.dto.UserResponse;
+import com.devign.chattr.model.User;
 import com.devign.chattr.repository.UserRepository;
+import com.devign.chattr.service.PasswordHashingService;
+import com.devign.chattr.service.TokenRevocationService;
 import com.devign.chattr.service.UserService;
 import com.devign.chattr.util.JwtUtil;
 import com.devign.chattr.aspect.Ratelimited;
 import jakarta.validation.Valid;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -20,72 +24,86 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final UserService userService;
-    
-    // In-memory token store for invalidation
-    private final Map<String, Boolean> invalidatedTokens = new ConcurrentHashMap<>();
+    private final TokenRevocationService tokenRevocationService;
+    // Blocking JPA work after a hash completes runs here, keeping the core-sized hashing pool on BCrypt only.
+    private final Executor requestExecutor;
 
-    public AuthController(UserRepository userRepository, UserService userService) {
+    public AuthController(UserRepository userRepository, UserService userService,
+                          PasswordHashingService passwordHashingService,
+                          TokenRevocationService tokenRevocationService,
+                          @Qualifier("applicationTaskExecutor") Executor requestExecutor) {
         this.userRepository = userRepository;
         this.userService = userService;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.passwordHashingService = passwordHashingService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.requestExecutor = requestExecutor;
     }
 
     /**
      * Register a new user
      */
-    @Ratelimited
+    @Ratelimited(name = "auth-register", capacity = 5, refillPeriodSeconds = 600)
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody UserRequest userRequest) {
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody UserRequest userRequest) {
         if (userRepository.findByUsername(userRequest.getUsername()).isPresent()) {
-            return ResponseEntity.status(409).body(Map.of(
+            return CompletableFuture.completedFuture(ResponseEntity.status(409).body(Map.of(
                 "status", "error",
                 "message", "Username already exists"
-            ));
+            )));
         }
         if (userRepository.findByEmail(userRequest.getEmail()).isPresent()) {
-            return ResponseEntity.status(409).body(Map.of(
+            return CompletableFuture.completedFuture(ResponseEntity.status(409).body(Map.of(
                 "status", "error",
                 "message", "Email already exists"
-            ));
+            )));
         }
-        
-        UserResponse userResponse = userService.createUser(userRequest);
-        String token = JwtUtil.generateToken(userRequest.getUsername());
-        
-        return ResponseEntity.status(201).body(Map.of(
-            "status", "success",
-            "user", userResponse,
-            "token", token
-        ));
+
+        return passwordHashingService.hash(userRequest.getPassword()).thenApplyAsync(passwordHash -> {
+            UserResponse userResponse = userService.createUser(userRequest, passwordHash);
+            String token = JwtUtil.generateToken(userRequest.getUsername());
+
+            return ResponseEntity.status(201).body(Map.of(
+                "status", "success",
+                "user", userResponse,
+                "token", token
+            ));
+        }, requestExecutor);
     }
 
     /**
      * Login with username and password
      */
-    @Ratelimited
+    @Ratelimited(name = "auth-login")
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody UserRequest userRequest) {
-        return userRepository.findByUsername(userRequest.getUsername())
-                .filter(user -> passwordEncoder.matches(userRequest.getPassword(), user.getPassword()))
-                .map(user -> {
-                    String token = JwtUtil.generateToken(user.getUsername());
-                    return ResponseEntity.ok(Map.of(
-                        "status", "success",
-                        "token", token
-                    ));
-                })
-                .orElse(ResponseEntity.status(401).body(Map.of(
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody UserRequest userRequest) {
+        User user = userRepository.findByUsername(userRequest.getUsername()).orElse(null);
+        String passwordHash = user != null ? user.getPassword() : null;
+
+        return passwordHashingService.matches(userRequest.getPassword(), passwordHash).thenApply(matches -> {
+            if (!matches) {
+                return ResponseEntity.status(401).body(Map.of(
                     "status", "error",
                     "message", "Invalid Credentials"
-                )));
+                ));
+            }
+            if (passwordHashingService.needsRehash(passwordHash)) {
+                passwordHashingService.hash(userRequest.getPassword())
+                        .thenAcceptAsync(upgraded -> userService.updatePasswordHash(user, upgraded), requestExecutor);
+            }
+            String token = JwtUtil.generateToken(user.getUsername());
+            return ResponseEntity.ok(Map.of(
+                "status", "success",
+                "token", token
+            ));
+        });
     }
 
     /**
      * Logout the user and invalidate the token
      */
-    @Ratelimited
+    @Ratelimited(name = "auth-logout", key = Ratelimited.KeyStrategy.TOKEN)
     @PostMapping("/logout")
     public ResponseEntity<?> logout(@RequestHeader("Authorization") String token) {
         if (token == null || !token.startsWith("Bearer ")) {
@@ -96,7 +114,7 @@ public class AuthController {
         }
 
         String jwtToken = token.replace("Bearer ", "");
-        String username = JwtUtil.validateToken(jwtToken);
+        String username = tokenRevocationService.authenticate(jwtToken);
 
         if (username == null) {
             return ResponseEntity.status(403).body(Map.of(
@@ -105,8 +123,8 @@ public class AuthController {
             ));
         }
 
-        // Invalidate the token by adding it to the map
-        invalidatedTokens.put(jwtToken, true);
+        // Revoke the token on every node until it would have expired anyway
+        tokenRevocationService.revoke(jwtToken);
 
         return ResponseEntity.ok(Map.of(
             "status", "success",
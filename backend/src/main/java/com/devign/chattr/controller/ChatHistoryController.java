@@ -1,28 +1,77 @@
 package com.devign.chattr.controller;
 
-import com.devign.chattr.model.ChatMessage;
-import com.devign.chattr.repository.ChatMessageRepository;
+import com.devign.chattr.dto.ChatHistoryPage;
+import com.devign.chattr.service.ChatHistoryService;
+import com.devign.chattr.service.RecentMessageCache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("api/v1/chat")
 public class ChatHistoryController {
 
-    private final ChatMessageRepository chatMessageRepository;
+    private final ChatHistoryService chatHistoryService;
+    private final RecentMessageCache recentMessageCache;
 
-    public ChatHistoryController(ChatMessageRepository chatMessageRepository) {
-        this.chatMessageRepository = chatMessageRepository;
+    public ChatHistoryController(ChatHistoryService chatHistoryService, RecentMessageCache recentMessageCache) {
+        this.chatHistoryService = chatHistoryService;
+        this.recentMessageCache = recentMessageCache;
     }
 
+    /**
+     * One page of the caller's conversation with {@code partner}. The caller's side always comes from the
+     * authenticated principal; the older {@code sender}/{@code receiver} form is still accepted as long as the
+     * caller is one of the two.
+     */
     @GetMapping("/history")
-    public ResponseEntity<List<ChatMessage>> getChatHistory(
-            @RequestParam String sender,
-            @RequestParam String receiver) {
-        
-        List<ChatMessage> history = chatMessageRepository.findBySenderAndReceiver(sender, receiver);
-        return ResponseEntity.ok(history);
+    public ResponseEntity<?> getChatHistory(
+            @RequestParam(required = false) String partner,
+            @RequestParam(required = false) String sender,
+            @RequestParam(required = false) String receiver,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestAttribute("username") String username) {
+
+        if (partner == null && sender != null && receiver != null) {
+            if (username.equals(sender)) {
+                partner = receiver;
+            } else if (username.equals(receiver)) {
+                partner = sender;
+            } else {
+                return ResponseEntity.status(403).body(Map.of(
+                        "status", "error",
+                        "message", "Not part of this conversation"
+                ));
+            }
+        }
+        if (partner == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", "partner is required"
+            ));
+        }
+        if (before != null && after != null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", "Use either before or after, not both"
+            ));
+        }
+        try {
+            ChatHistoryPage history = chatHistoryService.getHistory(username, partner, before, after, limit);
+            return ResponseEntity.ok(history);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/history/cache-stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(recentMessageCache.getStats());
     }
 }
\ No newline at end of file
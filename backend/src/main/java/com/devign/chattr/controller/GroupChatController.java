@@ -1,15 +1,24 @@
 package com.devign.chattr.controller;
 
+import com.devign.chattr.config.GroupSubscriptionInterceptor;
 import com.devign.chattr.model.GroupChat;
 import com.devign.chattr.model.GroupMessage;
-import com.devign.chattr.model.User;
+import com.devign.chattr.dto.GroupMemberPage;
+import com.devign.chattr.dto.GroupTimelinePage;
 import com.devign.chattr.repository.GroupChatRepository;
-import com.devign.chattr.repository.GroupMessageRepository;
+import com.devign.chattr.service.GroupChatService;
+import com.devign.chattr.service.GroupMembershipIndex;
+import com.devign.chattr.service.GroupMembershipService;
+import com.devign.chattr.service.GroupTimelineService;
+import com.devign.chattr.service.MessagePersistenceService;
+import com.devign.chattr.service.PreEncodedMessageSender;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/group")
@@ -19,45 +28,127 @@ public class GroupChatController {
     private GroupChatRepository groupChatRepository;
 
     @Autowired
-    private GroupMessageRepository groupMessageRepository;
+    private MessagePersistenceService messagePersistenceService;
+
+    @Autowired
+    private PreEncodedMessageSender preEncodedMessageSender;
+
+    @Autowired
+    private GroupChatService groupChatService;
+
+    @Autowired
+    private GroupMembershipService groupMembershipService;
+
+    @Autowired
+    private GroupTimelineService groupTimelineService;
+
+    @Autowired
+    private GroupMembershipIndex groupMembershipIndex;
 
     @PostMapping("/create")
-    public ResponseEntity<GroupChat> createGroup(@RequestParam String groupName, @RequestParam String createdBy) {
-        GroupChat groupChat = GroupChat.builder()
-                .groupName(groupName)
-                .createdBy(createdBy)
-                .build();
-        groupChatRepository.save(groupChat);
+    public ResponseEntity<GroupChat> createGroup(@RequestParam String groupName,
+                                                 @RequestAttribute("username") String createdBy) {
+        GroupChat groupChat = groupChatService.createGroup(groupName, createdBy);
+        groupMembershipIndex.onJoined(groupChat.getId(), createdBy);
         return ResponseEntity.ok(groupChat);
     }
 
     @PostMapping("/join")
-    public ResponseEntity<String> joinGroup(@RequestParam String groupName, @RequestParam String username) {
+    public ResponseEntity<String> joinGroup(@RequestParam String groupName,
+                                            @RequestAttribute("username") String username) {
         GroupChat group = groupChatRepository.findByGroupName(groupName);
         if (group == null) {
             return ResponseEntity.status(404).body("Group not found");
         }
-        User user = new User(); 
-        user.setUsername(username);
-        group.getMembers().add(user);
-        groupChatRepository.save(group);
+        if (groupMembershipService.join(group.getId(), username)) {
+            groupMembershipIndex.onJoined(group.getId(), username);
+        }
         return ResponseEntity.ok("User " + username + " joined " + groupName);
     }
 
+    @PostMapping("/leave")
+    public ResponseEntity<String> leaveGroup(@RequestParam String groupName,
+                                             @RequestAttribute("username") String username) {
+        GroupChat group = groupChatRepository.findByGroupName(groupName);
+        if (group == null) {
+            return ResponseEntity.status(404).body("Group not found");
+        }
+        if (groupMembershipService.leave(group.getId(), username)) {
+            groupMembershipIndex.onLeft(group.getId(), username);
+        }
+        return ResponseEntity.ok("User " + username + " left " + groupName);
+    }
+
+    @GetMapping("/members")
+    public ResponseEntity<?> getMembers(@RequestParam String groupName,
+                                        @RequestParam(required = false) Long after,
+                                        @RequestParam(required = false) Integer limit) {
+        GroupChat group = groupChatRepository.findByGroupName(groupName);
+        if (group == null) {
+            return ResponseEntity.status(404).body(Map.of(
+                    "status", "error",
+                    "message", "Group not found"
+            ));
+        }
+        GroupMemberPage page = groupMembershipService.getMembers(group, after, limit);
+        return ResponseEntity.ok(page);
+    }
+
     @PostMapping("/message")
-    public ResponseEntity<GroupMessage> sendMessage(@RequestParam String groupId, @RequestParam String sender, @RequestParam String content) {
+    public ResponseEntity<?> sendMessage(@RequestParam Long groupId, @RequestParam String content,
+                                         @RequestAttribute("username") String username) {
+        if (!groupMembershipIndex.isMember(groupId, username)) {
+            return ResponseEntity.status(403).body(Map.of(
+                    "status", "error",
+                    "message", "Not a member of this group"
+            ));
+        }
         GroupMessage message = GroupMessage.builder()
                 .groupId(groupId)
-                .sender(sender)
+                .sender(username)
                 .content(content)
                 .build();
-        groupMessageRepository.save(message);
+        try {
+            messagePersistenceService.save(message);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
+        }
+        preEncodedMessageSender.send(GroupSubscriptionInterceptor.GROUP_TOPIC_PREFIX + groupId,
+                preEncodedMessageSender.encode(message));
         return ResponseEntity.ok(message);
     }
 
     @GetMapping("/messages")
-    public ResponseEntity<List<GroupMessage>> fetchGroupMessages(@RequestParam String groupId) {
-        List<GroupMessage> messages = groupMessageRepository.findByGroupId(groupId);
-        return ResponseEntity.ok(messages);
+    public ResponseEntity<?> fetchGroupMessages(@RequestParam Long groupId,
+                                                @RequestParam(required = false) String before,
+                                                @RequestParam(required = false) String after,
+                                                @RequestParam(required = false)
+                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+                                                @RequestParam(required = false) Integer limit,
+                                                @RequestAttribute("username") String username) {
+        if ((before != null ? 1 : 0) + (after != null ? 1 : 0) + (since != null ? 1 : 0) > 1) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", "Use only one of before, after or since"
+            ));
+        }
+        if (!groupMembershipIndex.isMember(groupId, username)) {
+            return ResponseEntity.status(403).body(Map.of(
+                    "status", "error",
+                    "message", "Not a member of this group"
+            ));
+        }
+        try {
+            GroupTimelinePage timeline = groupTimelineService.getTimeline(groupId, before, after, since, limit);
+            return ResponseEntity.ok(timeline);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
+        }
     }
 }
\ No newline at end of file
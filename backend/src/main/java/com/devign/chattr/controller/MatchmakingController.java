@@ -1,9 +1,14 @@
 package com.devign.chattr.controller;
 
+import com.devign.chattr.dto.MatchQueueStats;
+import com.devign.chattr.service.MatchmakingEngine;
 import com.devign.chattr.service.MatchmakingService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/v1/match")
 public class MatchmakingController {
@@ -15,12 +20,21 @@ public class MatchmakingController {
     }
 
     @PostMapping("/start")
-    public ResponseEntity<String> startMatchmaking(
+    public ResponseEntity<?> startMatchmaking(
             @RequestParam String username,
             @RequestParam String genderPreference,
             @RequestParam String purposePreference) {
-        
-        matchmakingService.startMatchmaking(username, genderPreference, purposePreference);
+
+        try {
+            matchmakingService.startMatchmaking(username,
+                    MatchmakingEngine.parse(MatchmakingEngine.GenderPreference.class, genderPreference),
+                    MatchmakingEngine.parse(MatchmakingEngine.Purpose.class, purposePreference));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()
+            ));
+        }
         return ResponseEntity.ok("Matchmaking started for " + username);
     }
 
@@ -36,4 +50,9 @@ public class MatchmakingController {
                 .map(match -> ResponseEntity.ok("Matched with " + match))
                 .orElse(ResponseEntity.ok("No match found yet. Keep waiting..."));
     }
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<MatchQueueStats>> getQueueStats() {
+        return ResponseEntity.ok(matchmakingService.getQueueStats());
+    }
 }
\ No newline at end of file
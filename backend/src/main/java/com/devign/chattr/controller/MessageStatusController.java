@@ -1,10 +1,14 @@
 package com.devign.chattr.controller;
 
 import com.devign.chattr.service.NotificationService;
+import com.devign.chattr.service.ReadReceiptService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/v1/messages")
 public class MessageStatusController {
@@ -12,9 +16,27 @@ public class MessageStatusController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private ReadReceiptService readReceiptService;
+
     @GetMapping("/delivered")
     public ResponseEntity<String> isMessageDelivered(@RequestParam Long messageId) {
         boolean status = notificationService.isDelivered(messageId);
         return ResponseEntity.ok(status ? "Delivered" : "Not Delivered");
     }
+
+    @GetMapping("/delivered/batch")
+    public ResponseEntity<Map<Long, Boolean>> areMessagesDelivered(@RequestParam List<Long> messageIds) {
+        return ResponseEntity.ok(notificationService.areDelivered(messageIds));
+    }
+
+    @GetMapping("/read-watermark")
+    public ResponseEntity<Map<String, Object>> getReadWatermark(@RequestAttribute("username") String reader,
+                                                                @RequestParam String partner) {
+        return ResponseEntity.ok(readReceiptService.getWatermark(reader, partner)
+                .<Map<String, Object>>map(watermark -> Map.of(
+                        "lastReadMessageId", watermark.id(),
+                        "lastReadAt", watermark.timestamp()))
+                .orElse(Map.of("lastReadMessageId", 0L)));
+    }
 }
\ No newline at end of file
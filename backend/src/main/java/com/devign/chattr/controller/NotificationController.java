@@ -2,11 +2,13 @@ package com.devign.chattr.controller;
 
 import com.devign.chattr.model.ChatMessage;
 import com.devign.chattr.service.NotificationService;
+import com.devign.chattr.service.UnreadCounterService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/notifications")
@@ -15,12 +17,20 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
     @GetMapping("/unread")
     public ResponseEntity<List<ChatMessage>> getUnreadMessages(@RequestParam String username) {
         List<ChatMessage> unreadMessages = notificationService.getUnreadMessages(username);
         return ResponseEntity.ok(unreadMessages);
     }
 
+    @GetMapping("/unread/counts")
+    public ResponseEntity<Map<String, Long>> getUnreadCounts(@RequestAttribute("username") String username) {
+        return ResponseEntity.ok(unreadCounterService.getCounts(username));
+    }
+
     @PostMapping("/mark-delivered")
     public ResponseEntity<String> markMessagesAsDelivered(@RequestParam String username) {
         notificationService.markAsDelivered(username);
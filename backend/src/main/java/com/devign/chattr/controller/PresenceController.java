@@ -0,0 +1,30 @@
+package com.devign.chattr.controller;
+
+import com.devign.chattr.service.PresenceService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/presence")
+public class PresenceController {
+
+    private static final int MAX_USERNAMES = 500;
+
+    private final PresenceService presenceService;
+
+    public PresenceController(PresenceService presenceService) {
+        this.presenceService = presenceService;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getPresence(@RequestParam List<String> usernames) {
+        if (usernames.size() > MAX_USERNAMES) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message",
+                    "At most " + MAX_USERNAMES + " usernames per request"));
+        }
+        return ResponseEntity.ok(presenceService.areOnline(usernames));
+    }
+}
@@ -0,0 +1,24 @@
+package com.devign.chattr.controller;
+
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+
+import java.util.Map;
+
+@ControllerAdvice
+public class StompExceptionHandler {
+
+    /**
+     * A STOMP message that cannot be stored (e.g. empty or oversized content) is answered on the sending
+     * session's {@code /user/queue/errors} instead of being broadcast.
+     */
+    @MessageExceptionHandler(IllegalArgumentException.class)
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public Map<String, Object> handleInvalidMessage(IllegalArgumentException e) {
+        return Map.of(
+                "status", "error",
+                "message", e.getMessage()
+        );
+    }
+}
@@ -1,27 +1,35 @@
 package com.devign.chattr.controller;
 
 import com.devign.chattr.dto.UserResponse;
+import com.devign.chattr.service.PasswordHashingService;
 import com.devign.chattr.service.UserService;
 import com.devign.chattr.aspect.Ratelimited;
 import com.devign.chattr.dto.UserRequest;
-import com.devign.chattr.util.JwtUtil;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api/v1/users")
 public class UserController {
 
     private final UserService userService;
+    private final PasswordHashingService passwordHashingService;
+    private final Executor requestExecutor;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, PasswordHashingService passwordHashingService,
+                          @Qualifier("applicationTaskExecutor") Executor requestExecutor) {
         this.userService = userService;
+        this.passwordHashingService = passwordHashingService;
+        this.requestExecutor = requestExecutor;
     }
 
-    @Ratelimited
+    @Ratelimited(name = "users-lookup", capacity = 60, key = Ratelimited.KeyStrategy.USER)
     @GetMapping("/{username}")
     public ResponseEntity<?> getUserByUsername(@PathVariable String username) {
         return userService.getUserByUsername(username)
@@ -35,30 +43,31 @@ public class UserController {
                 )));
     }
 
-    @Ratelimited
+    @Ratelimited(name = "users-update", key = Ratelimited.KeyStrategy.USER)
     @PutMapping("/update")
-    public ResponseEntity<?> updateUser(@Valid @RequestBody UserRequest userRequest,
-                                        @RequestHeader("Authorization") String token) {
-        String username = JwtUtil.validateToken(token.replace("Bearer ", ""));
+    public CompletableFuture<ResponseEntity<?>> updateUser(@Valid @RequestBody UserRequest userRequest,
+                                                           @RequestAttribute(value = "username", required = false) String username) {
 
         if (username == null || !username.equals(userRequest.getUsername())) {
-            return ResponseEntity.status(403).body(Map.of(
+            return CompletableFuture.completedFuture(ResponseEntity.status(403).body(Map.of(
                     "status", "error",
                     "message", "Unauthorized"
-            ));
+            )));
         }
 
         if (userService.isEmailTaken(userRequest.getEmail(), userRequest.getUsername())) {
-            return ResponseEntity.status(409).body(Map.of(
+            return CompletableFuture.completedFuture(ResponseEntity.status(409).body(Map.of(
                     "status", "error",
                     "message", "Email is already in use"
-            ));
+            )));
         }
 
-        UserResponse userResponse = userService.updateUser(userRequest);
-        return ResponseEntity.ok(Map.of(
-                "status", "success",
-                "user", userResponse
-        ));
+        return passwordHashingService.hash(userRequest.getPassword()).thenApplyAsync(passwordHash -> {
+            UserResponse userResponse = userService.updateUser(userRequest, passwordHash);
+            return ResponseEntity.ok(Map.of(
+                    "status", "success",
+                    "user", userResponse
+            ));
+        }, requestExecutor);
     }
 }
\ No newline at end of file
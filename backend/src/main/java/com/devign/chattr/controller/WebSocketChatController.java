@@ -1,47 +1,86 @@
 package com.devign.chattr.controller;
 
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
+import com.devign.chattr.dto.ChatSignal;
+import com.devign.chattr.dto.ReadReceiptEvent;
 import com.devign.chattr.model.ChatMessage;
-import com.devign.chattr.repository.ChatMessageRepository;
+import com.devign.chattr.service.EphemeralSignalService;
+import com.devign.chattr.service.MessagePersistenceService;
+import com.devign.chattr.service.PreEncodedMessageSender;
+import com.devign.chattr.service.ReadReceiptService;
+import com.devign.chattr.service.RecentMessageCache;
+import com.devign.chattr.service.UnreadCounterService;
+
+import java.security.Principal;
 
 @Controller
 public class WebSocketChatController {
 
-    private final ChatMessageRepository chatMessageRepository;
+    private final MessagePersistenceService messagePersistenceService;
+    private final RecentMessageCache recentMessageCache;
+    private final UnreadCounterService unreadCounterService;
+    private final ReadReceiptService readReceiptService;
+    private final EphemeralSignalService ephemeralSignalService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PreEncodedMessageSender preEncodedMessageSender;
 
-    public WebSocketChatController(ChatMessageRepository chatMessageRepository) {
-        this.chatMessageRepository = chatMessageRepository;
+    public WebSocketChatController(MessagePersistenceService messagePersistenceService,
+                                   RecentMessageCache recentMessageCache,
+                                   UnreadCounterService unreadCounterService,
+                                   ReadReceiptService readReceiptService,
+                                   EphemeralSignalService ephemeralSignalService,
+                                   SimpMessagingTemplate messagingTemplate,
+                                   PreEncodedMessageSender preEncodedMessageSender) {
+        this.messagePersistenceService = messagePersistenceService;
+        this.recentMessageCache = recentMessageCache;
+        this.unreadCounterService = unreadCounterService;
+        this.readReceiptService = readReceiptService;
+        this.ephemeralSignalService = ephemeralSignalService;
+        this.messagingTemplate = messagingTemplate;
+        this.preEncodedMessageSender = preEncodedMessageSender;
     }
 
 
     @MessageMapping("/chat")
-    @SendTo("/topic/messages")
-    public ChatMessage send(ChatMessage message) {
-        ChatMessage savedMessage = chatMessageRepository.save(message);
-        return savedMessage;
+    public void send(ChatMessage message, Principal principal) {
+        message.setSender(principal.getName());
+        ChatMessage savedMessage = messagePersistenceService.save(message);
+        recentMessageCache.append(savedMessage);
+        preEncodedMessageSender.sendToUsers("/queue/messages", preEncodedMessageSender.encode(savedMessage),
+                savedMessage.getReceiver(), savedMessage.getSender());
+        unreadCounterService.increment(savedMessage.getReceiver(), savedMessage.getSender());
     }
 
     @MessageMapping("/typing")
-    @SendTo("/topic/typing")
-    public String typing(String username) {
-        return username + " is typing...";
+    public void typing(ChatSignal signal, Principal principal) {
+        signal.setSender(principal.getName());
+        ephemeralSignalService.send("/queue/typing", signal);
     }
 
     @MessageMapping("/status")
-    @SendTo("/topic/status")
-    public String status(String username) {
-        return username + " is now online";
+    public void status(ChatSignal signal, Principal principal) {
+        signal.setSender(principal.getName());
+        ephemeralSignalService.send("/queue/status", signal);
     }
 
+    /**
+     * Treats the seen message as a read watermark for the whole conversation, so a single receipt covers
+     * every earlier message from the same partner. Only the message's receiver can mark it seen.
+     */
     @MessageMapping("/seen")
-    @SendTo("/topic/seen")
-    public String markAsSeen(ChatMessage message) {
-        ChatMessage msg = chatMessageRepository.findById(message.getId()).orElseThrow();
-        msg.setIsRead(true);
-        chatMessageRepository.save(msg);
-        return message.getReceiver() + " has seen the message.";
+    public void markAsSeen(ChatMessage message, Principal principal) {
+        String reader = principal.getName();
+        if (message.getId() == null) {
+            return;
+        }
+        readReceiptService.markRead(reader, message.getId()).ifPresent(seen -> {
+            String partner = seen.getSender();
+            unreadCounterService.reset(reader, partner);
+            messagingTemplate.convertAndSendToUser(partner, "/queue/seen",
+                    new ReadReceiptEvent(reader, partner, seen.getId(), seen.getTimestamp()));
+        });
     }
-}
\ No newline at end of file
+}
@@ -1,22 +1,38 @@
 package com.devign.chattr.controller;
 
+import com.devign.chattr.config.GroupSubscriptionInterceptor;
 import com.devign.chattr.model.GroupMessage;
-import com.devign.chattr.repository.GroupMessageRepository;
+import com.devign.chattr.service.GroupMembershipIndex;
+import com.devign.chattr.service.MessagePersistenceService;
+import com.devign.chattr.service.PreEncodedMessageSender;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Controller;
 
+import java.security.Principal;
+
 @Controller
 public class WebSocketGroupController {
 
     @Autowired
-    private GroupMessageRepository groupMessageRepository;
+    private MessagePersistenceService messagePersistenceService;
+
+    @Autowired
+    private GroupMembershipIndex groupMembershipIndex;
+
+    @Autowired
+    private PreEncodedMessageSender preEncodedMessageSender;
 
     @MessageMapping("/group")
-    @SendTo("/topic/group")
-    public GroupMessage sendToGroup(GroupMessage message) {
-        groupMessageRepository.save(message);
-        return message;
+    public void sendToGroup(GroupMessage message, Principal principal) {
+        Long groupId = message.getGroupId();
+        if (groupId == null || !groupMembershipIndex.isMember(groupId, principal.getName())) {
+            throw new AccessDeniedException("Not a member of group " + groupId);
+        }
+        message.setSender(principal.getName());
+        GroupMessage saved = messagePersistenceService.save(message);
+        preEncodedMessageSender.send(GroupSubscriptionInterceptor.GROUP_TOPIC_PREFIX + groupId,
+                preEncodedMessageSender.encode(saved));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.devign.chattr.controller;
+
+import com.devign.chattr.service.EphemeralSignalService;
+import com.devign.chattr.service.PayloadEncodingService;
+import com.devign.chattr.service.RedisBrokerRelay;
+import com.devign.chattr.service.VirtualThreadPinningMonitor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/ws")
+public class WebSocketStatsController {
+
+    private final ObjectProvider<RedisBrokerRelay> redisBrokerRelay;
+    private final EphemeralSignalService ephemeralSignalService;
+    private final PayloadEncodingService payloadEncodingService;
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+    private final String brokerMode;
+
+    public WebSocketStatsController(ObjectProvider<RedisBrokerRelay> redisBrokerRelay,
+                                    EphemeralSignalService ephemeralSignalService,
+                                    PayloadEncodingService payloadEncodingService,
+                                    ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor,
+                                    @Value("${chattr.websocket.broker:simple}") String brokerMode) {
+        this.redisBrokerRelay = redisBrokerRelay;
+        this.ephemeralSignalService = ephemeralSignalService;
+        this.payloadEncodingService = payloadEncodingService;
+        this.pinningMonitor = pinningMonitor;
+        this.brokerMode = brokerMode;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("broker", brokerMode);
+        stats.put("signals", ephemeralSignalService.getStats());
+        stats.put("payloadEncoding", payloadEncodingService.getStats());
+        redisBrokerRelay.ifAvailable(relay -> stats.put("relayLatency", relay.getLatencyStats()));
+        pinningMonitor.ifAvailable(monitor -> stats.put("virtualThreadPinning", monitor.getStats()));
+        return ResponseEntity.ok(stats);
+    }
+}
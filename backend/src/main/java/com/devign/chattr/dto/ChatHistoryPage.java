@@ -0,0 +1,18 @@
+package com.devign.chattr.dto;
+
+import com.devign.chattr.model.ChatMessage;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatHistoryPage {
+
+    private List<ChatMessage> messages;
+    private String previousCursor;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,16 @@
+package com.devign.chattr.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatSignal {
+
+    private String sender;
+    private String receiver;
+
+    // false means "stopped typing" / "went away"; missing means true
+    private Boolean active;
+}
@@ -0,0 +1,18 @@
+package com.devign.chattr.dto;
+
+import com.devign.chattr.model.GroupMembership;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupMemberPage {
+
+    private List<GroupMembership> members;
+    private long memberCount;
+    private Long nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,18 @@
+package com.devign.chattr.dto;
+
+import com.devign.chattr.model.GroupMessage;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupTimelinePage {
+
+    private List<GroupMessage> messages;
+    private String previousCursor;
+    private String nextCursor;
+    private boolean hasMore;
+}
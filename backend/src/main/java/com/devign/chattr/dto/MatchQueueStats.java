@@ -0,0 +1,17 @@
+package com.devign.chattr.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MatchQueueStats {
+
+    private String bucket;
+    private long queueLength;
+    private long p50WaitMs;
+    private long p90WaitMs;
+    private long p99WaitMs;
+    private long maxWaitMs;
+}
@@ -0,0 +1,17 @@
+package com.devign.chattr.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReadReceiptEvent {
+
+    private String reader;
+    private String partner;
+    private Long lastReadMessageId;
+    private LocalDateTime lastReadAt;
+}
@@ -0,0 +1,13 @@
+package com.devign.chattr.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UnreadCount {
+
+    private String conversation;
+    private long count;
+}
@@ -13,10 +13,10 @@ public class UserMapper {
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    public User toEntity(UserRequest userRequest) {
+    public User toEntity(UserRequest userRequest, String passwordHash) {
         User user = new User();
         user.setUsername(userRequest.getUsername());
-        user.setPassword(userRequest.getPassword());
+        user.setPassword(passwordHash);
         user.setEmail(userRequest.getEmail());
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
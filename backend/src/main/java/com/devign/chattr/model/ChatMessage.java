@@ -1,5 +1,6 @@
 package com.devign.chattr.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -9,7 +10,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+        @Index(name = "idx_chat_messages_conversation", columnList = "conversationKey, timestamp, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,6 +32,9 @@ public class ChatMessage {
     @Column(nullable = false)
     private String content;
 
+    @JsonIgnore
+    private String conversationKey;
+
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
@@ -41,5 +47,16 @@ public class ChatMessage {
     @PrePersist
     protected void onCreate() {
         timestamp = LocalDateTime.now();
+        conversationKey = conversationKey(sender, receiver);
+    }
+
+    /**
+     * Direction-independent key shared by both sides of a one-to-one conversation.
+     */
+    public static String conversationKey(String userA, String userB) {
+        if (userA.compareTo(userB) > 0) {
+            return conversationKey(userB, userA);
+        }
+        return userA.length() + ":" + userA + ":" + userB;
     }
 }
\ No newline at end of file
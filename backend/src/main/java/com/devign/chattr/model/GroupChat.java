@@ -5,9 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
-import java.util.Set;
 
 @Entity
 @Table(name = "group_chats")
@@ -30,13 +30,11 @@ public class GroupChat {
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
-    @ManyToMany(fetch = FetchType.EAGER)
-    @JoinTable(
-            name = "group_members",
-            joinColumns = @JoinColumn(name = "group_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
-    )
-    private Set<User> members;
+    // Maintained by GroupMembershipService alongside the group_memberships rows.
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private long memberCount = 0;
 
     @PrePersist
     protected void onCreate() {
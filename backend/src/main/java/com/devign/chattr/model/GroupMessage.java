@@ -1,15 +1,20 @@
 package com.devign.chattr.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "group_messages")
+@Table(name = "group_messages", indexes = {
+        @Index(name = "idx_group_messages_timeline", columnList = "group_id, timestamp, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,8 +28,17 @@ public class GroupMessage {
     @Column(nullable = false)
     private String sender;
 
-    @Column(nullable = false)
-    private String groupId;
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    // Only here to give group_id its foreign key; messages are always handled by id.
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(name = "fk_group_messages_group"))
+    private GroupChat group;
 
     @Column(nullable = false)
     private String content;
@@ -0,0 +1,39 @@
+package com.devign.chattr.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "read_receipts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_read_receipts_reader_conversation", columnNames = {"reader", "conversationKey"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReadReceipt {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String reader;
+
+    @Column(nullable = false)
+    private String conversationKey;
+
+    @Column(nullable = false)
+    private Long lastReadMessageId;
+
+    /** Timestamp of the last read message; the watermark is ordered by {@code (lastReadAt, lastReadMessageId)}. */
+    private LocalDateTime lastReadAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -30,9 +30,6 @@ public class User {
     @Column(nullable = false)
     private String gender;
 
-    @Column(nullable = false)
-    private Boolean isOnline;
-
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
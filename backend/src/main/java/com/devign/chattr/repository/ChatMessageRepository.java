@@ -1,12 +1,49 @@
 package com.devign.chattr.repository;
 
 import com.devign.chattr.model.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
     List<ChatMessage> findBySenderAndReceiver(String sender, String receiver);
     List<ChatMessage> findByReceiver(String receiver);
     List<ChatMessage> findByReceiverAndIsRead(String receiver, Boolean isRead);
     List<ChatMessage> findByReceiverAndIsDelivered(String receiver, Boolean isDelivered);
+    Optional<ChatMessage> findByIdAndReceiver(Long id, String receiver);
+
+    @Query("select m from ChatMessage m where m.conversationKey = :key order by m.timestamp desc, m.id desc")
+    List<ChatMessage> findLatestInConversation(@Param("key") String conversationKey, Pageable page);
+
+    @Query("select m from ChatMessage m where m.conversationKey = :key and m.timestamp <= :timestamp"
+            + " and (m.timestamp < :timestamp or m.id < :id) order by m.timestamp desc, m.id desc")
+    List<ChatMessage> findInConversationBefore(@Param("key") String conversationKey,
+                                               @Param("timestamp") LocalDateTime timestamp,
+                                               @Param("id") Long id,
+                                               Pageable page);
+
+    @Query("select m from ChatMessage m where m.conversationKey = :key and m.timestamp >= :timestamp"
+            + " and (m.timestamp > :timestamp or m.id > :id) order by m.timestamp asc, m.id asc")
+    List<ChatMessage> findInConversationAfter(@Param("key") String conversationKey,
+                                              @Param("timestamp") LocalDateTime timestamp,
+                                              @Param("id") Long id,
+                                              Pageable page);
+
+    @Query(value = "update chat_messages set is_delivered = true where receiver = :receiver and is_delivered = false returning id",
+            nativeQuery = true)
+    List<Long> markDeliveredReturningIds(@Param("receiver") String receiver);
+
+    @Query(value = "select m.* from chat_messages m left join read_receipts r"
+            + " on r.reader = m.receiver and r.conversation_key = m.conversation_key"
+            + " where m.receiver = :receiver and m.is_read = false"
+            + " and (r.reader is null or (m.timestamp, m.id)"
+            + " > (coalesce(r.last_read_at, cast('-infinity' as timestamp)), r.last_read_message_id))"
+            + " order by m.timestamp, m.id",
+            nativeQuery = true)
+    List<ChatMessage> findUnreadByReceiver(@Param("receiver") String receiver);
 }
\ No newline at end of file
@@ -2,10 +2,14 @@ package com.devign.chattr.repository;
 
 import com.devign.chattr.model.GroupChat;
 import org.springframework.data.jpa.repository.JpaRepository;
-
-import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface GroupChatRepository extends JpaRepository<GroupChat, Long> {
-    List<GroupChat> findByMembers_Username(String username);
     GroupChat findByGroupName(String groupName);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("update GroupChat g set g.memberCount = g.memberCount + :delta where g.id = :groupId")
+    int adjustMemberCount(@Param("groupId") Long groupId, @Param("delta") long delta);
+}
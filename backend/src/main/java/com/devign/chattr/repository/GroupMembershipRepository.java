@@ -0,0 +1,33 @@
+package com.devign.chattr.repository;
+
+import com.devign.chattr.model.GroupMembership;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface GroupMembershipRepository extends JpaRepository<GroupMembership, Long> {
+
+    /**
+     * Adds the membership unless it already exists. Returns 1 if a row was inserted.
+     */
+    @Modifying
+    @Query(value = "insert into group_memberships (group_id, username, joined_at) values (:groupId, :username, now())"
+            + " on conflict (group_id, username) do nothing", nativeQuery = true)
+    int insertIfAbsent(@Param("groupId") Long groupId, @Param("username") String username);
+
+    @Modifying
+    @Query("delete from GroupMembership m where m.groupId = :groupId and m.username = :username")
+    int deleteByGroupIdAndUsername(@Param("groupId") Long groupId, @Param("username") String username);
+
+    List<GroupMembership> findByGroupIdAndIdGreaterThanOrderByIdAsc(Long groupId, Long afterId, Pageable pageable);
+
+    @Query("select m.username from GroupMembership m where m.groupId = :groupId")
+    List<String> findUsernamesByGroupId(@Param("groupId") Long groupId);
+
+    @Query("select m.groupId from GroupMembership m where m.username = :username")
+    List<Long> findGroupIdsByUsername(@Param("username") String username);
+}
@@ -1,10 +1,36 @@
 package com.devign.chattr.repository;
 
 import com.devign.chattr.model.GroupMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface GroupMessageRepository extends JpaRepository<GroupMessage, Long> {
-    List<GroupMessage> findByGroupId(String groupId);
-}
\ No newline at end of file
+
+    @Query("select m from GroupMessage m where m.groupId = :groupId order by m.timestamp desc, m.id desc")
+    List<GroupMessage> findLatestInGroup(@Param("groupId") Long groupId, Pageable page);
+
+    @Query("select m from GroupMessage m where m.groupId = :groupId and m.timestamp <= :timestamp"
+            + " and (m.timestamp < :timestamp or m.id < :id) order by m.timestamp desc, m.id desc")
+    List<GroupMessage> findInGroupBefore(@Param("groupId") Long groupId,
+                                         @Param("timestamp") LocalDateTime timestamp,
+                                         @Param("id") Long id,
+                                         Pageable page);
+
+    @Query("select m from GroupMessage m where m.groupId = :groupId and m.timestamp >= :timestamp"
+            + " and (m.timestamp > :timestamp or m.id > :id) order by m.timestamp asc, m.id asc")
+    List<GroupMessage> findInGroupAfter(@Param("groupId") Long groupId,
+                                        @Param("timestamp") LocalDateTime timestamp,
+                                        @Param("id") Long id,
+                                        Pageable page);
+
+    @Query("select m from GroupMessage m where m.groupId = :groupId and m.timestamp > :since"
+            + " order by m.timestamp asc, m.id asc")
+    List<GroupMessage> findInGroupSince(@Param("groupId") Long groupId,
+                                        @Param("since") LocalDateTime since,
+                                        Pageable page);
+}
@@ -0,0 +1,10 @@
+package com.devign.chattr.repository;
+
+import com.devign.chattr.model.ReadReceipt;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ReadReceiptRepository extends JpaRepository<ReadReceipt, Long> {
+    Optional<ReadReceipt> findByReaderAndConversationKey(String reader, String conversationKey);
+}
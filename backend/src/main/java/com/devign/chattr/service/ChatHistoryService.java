@@ -0,0 +1,93 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.dto.ChatHistoryPage;
+import com.devign.chattr.model.ChatMessage;
+import com.devign.chattr.repository.ChatMessageRepository;
+import com.devign.chattr.util.MessageCursor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Service
+public class ChatHistoryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final RecentMessageCache recentMessageCache;
+    private final MessagePersistenceService messagePersistenceService;
+
+    public ChatHistoryService(ChatMessageRepository chatMessageRepository,
+                              RecentMessageCache recentMessageCache,
+                              MessagePersistenceService messagePersistenceService) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.recentMessageCache = recentMessageCache;
+        this.messagePersistenceService = messagePersistenceService;
+    }
+
+    /**
+     * Returns one page of a conversation in both directions, oldest first. Without a cursor this is the
+     * latest page; {@code before} pages towards older messages and {@code after} towards newer ones.
+     */
+    public ChatHistoryPage getHistory(String userA, String userB, String before, String after, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String key = ChatMessage.conversationKey(userA, userB);
+        if (before == null && after == null && size <= recentMessageCache.getCapacity()) {
+            return getLatestPage(key, size);
+        }
+        // Fetch one extra row to learn whether another page exists.
+        Pageable page = PageRequest.of(0, size + 1);
+
+        List<ChatMessage> messages;
+        if (after != null) {
+            MessageCursor cursor = MessageCursor.decode(after);
+            messages = chatMessageRepository.findInConversationAfter(key, cursor.timestamp(), cursor.id(), page);
+        } else if (before != null) {
+            MessageCursor cursor = MessageCursor.decode(before);
+            messages = chatMessageRepository.findInConversationBefore(key, cursor.timestamp(), cursor.id(), page);
+        } else {
+            messages = chatMessageRepository.findLatestInConversation(key, page);
+        }
+
+        boolean hasMore = messages.size() > size;
+        messages = new ArrayList<>(messages.subList(0, Math.min(size, messages.size())));
+        if (after == null) {
+            Collections.reverse(messages);
+        }
+        return toPage(messages, hasMore);
+    }
+
+    private ChatHistoryPage getLatestPage(String key, int size) {
+        List<ChatMessage> latest = recentMessageCache.latest(key, size + 1).orElse(null);
+        if (latest == null) {
+            // Register the buffer first so sends during the query are kept, and snapshot the write-behind backlog
+            // before querying so a row committed in between is still found in one of the two.
+            recentMessageCache.beginLoad(key);
+            List<ChatMessage> rows = new ArrayList<>(messagePersistenceService.findPendingChatMessages(key));
+            rows.addAll(chatMessageRepository.findLatestInConversation(key, PageRequest.of(0, recentMessageCache.getCapacity())));
+            List<ChatMessage> tail = recentMessageCache.load(key, rows);
+            latest = tail.subList(Math.max(0, tail.size() - size - 1), tail.size());
+        }
+        // A full buffer may have older messages behind it that only the database knows about.
+        boolean hasMore = latest.size() > size || latest.size() == recentMessageCache.getCapacity();
+        return toPage(new ArrayList<>(latest.subList(Math.max(0, latest.size() - size), latest.size())), hasMore);
+    }
+
+    static ChatHistoryPage toPage(List<ChatMessage> messages, boolean hasMore) {
+        ChatHistoryPage.ChatHistoryPageBuilder page = ChatHistoryPage.builder()
+                .messages(messages)
+                .hasMore(hasMore);
+        if (!messages.isEmpty()) {
+            ChatMessage oldest = messages.get(0);
+            ChatMessage newest = messages.get(messages.size() - 1);
+            page.previousCursor(new MessageCursor(oldest.getTimestamp(), oldest.getId()).encode());
+            page.nextCursor(new MessageCursor(newest.getTimestamp(), newest.getId()).encode());
+        }
+        return page.build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.devign.chattr.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide view of which nodes hold WebSocket sessions for a user, so any node can route a user
+ * destination to the nodes that can actually deliver it.
+ * <p>
+ * Each node holds a {@link NodeLeases} lease on {@code ws:user-node-leases:{user}} for every user connected to it,
+ * renewed every {@code node-ttl-ms / 3}, so a crashed node drops out within one TTL. Lookups run on the broker channel and
+ * are cached per node for {@code user-nodes-cache-ms}; a user's first session on a node is announced on
+ * {@code ws:user-nodes} so the other nodes drop their cached entry at once.
+ */
+@Component
+@ConditionalOnProperty(name = "chattr.websocket.broker", havingValue = "redis")
+public class ClusterUserRegistry implements MessageListener {
+
+    private static final String USER_NODES_PREFIX = "ws:user-node-leases:";
+    private static final String USER_NODES_CHANNEL = "ws:user-nodes";
+    private static final int CACHED_USERS = 100_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final NodeLeases leases;
+    private final String nodeId;
+    private final long cacheNanos;
+    private final Map<String, Set<String>> localSessions = new ConcurrentHashMap<>();
+    private final ConcurrentLruCache<String, CachedNodes> nodesByUser;
+
+    public ClusterUserRegistry(StringRedisTemplate redisTemplate,
+                               RedisMessageListenerContainer listenerContainer,
+                               NodeIdentity nodeIdentity,
+                               @Value("${chattr.websocket.node-ttl-ms:30000}") long ttlMillis,
+                               @Value("${chattr.websocket.user-nodes-cache-ms:1000}") long cacheMillis) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.nodeId = nodeIdentity.getNodeId();
+        this.leases = new NodeLeases(redisTemplate, USER_NODES_PREFIX, nodeId, ttlMillis);
+        this.cacheNanos = TimeUnit.MILLISECONDS.toNanos(cacheMillis);
+        this.nodesByUser = new ConcurrentLruCache<>(CACHED_USERS, this::loadNodes);
+    }
+
+    @PostConstruct
+    public void start() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(USER_NODES_CHANNEL));
+        leases.start("user-nodes-renew", () -> new ArrayList<>(localSessions.keySet()));
+    }
+
+    @PreDestroy
+    public void stop() {
+        leases.stop();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Set<String> nodesFor(String username) {
+        CachedNodes cached = nodesByUser.get(username);
+        if (System.nanoTime() - cached.loadedAt() > cacheNanos) {
+            nodesByUser.remove(username);
+            cached = nodesByUser.get(username);
+        }
+        return cached.nodes();
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = (String) event.getMessage().getHeaders().get("simpSessionId");
+        if (user == null || sessionId == null) {
+            return;
+        }
+        boolean[] first = new boolean[1];
+        // Added inside compute so a disconnect that is emptying the set (e.g. on a page reload) cannot drop it.
+        localSessions.compute(user.getName(), (name, sessions) -> {
+            Set<String> current = sessions != null ? sessions : ConcurrentHashMap.newKeySet();
+            first[0] = current.isEmpty();
+            current.add(sessionId);
+            return current;
+        });
+        leases.renew(List.of(user.getName()));
+        if (first[0]) {
+            redisTemplate.convertAndSend(USER_NODES_CHANNEL, user.getName());
+        }
+    }
+
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        Principal user = event.getUser();
+        if (user == null) {
+            return;
+        }
+        // Disconnect events can repeat for one session, so track session ids rather than a counter.
+        Set<String> remaining = localSessions.computeIfPresent(user.getName(), (name, sessions) -> {
+            sessions.remove(event.getSessionId());
+            return sessions.isEmpty() ? null : sessions;
+        });
+        if (remaining == null) {
+            leases.release(user.getName());
+            // A session that connected while the lease was being released must stay routable.
+            if (localSessions.containsKey(user.getName())) {
+                leases.renew(List.of(user.getName()));
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        nodesByUser.remove(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private CachedNodes loadNodes(String username) {
+        long startedAt = System.nanoTime();
+        return new CachedNodes(leases.holders(username), startedAt);
+    }
+
+    private record CachedNodes(Set<String> nodes, long loadedAt) {
+    }
+}
@@ -0,0 +1,194 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.dto.ChatSignal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers short-lived signals such as typing indicators to the conversation partner only. Repeats of the
+ * same state within the debounce window are coalesced into the one already sent; state changes go out at
+ * once. Delivery runs on single-threaded lanes, each with a small bounded queue that drops its oldest active
+ * signal under load. Every sender/receiver pair always uses the same lane, so its state changes arrive in order.
+ * <p>
+ * Signals that turn a state off are never dropped, since losing one would leave the partner's indicator stuck
+ * on: they are delivered however long they waited, and when a lane holds nothing else they wait for space.
+ * Any other signal that waited longer than the window is discarded rather than delivered late.
+ */
+@Service
+public class EphemeralSignalService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long windowNanos;
+    private final Map<String, Emission> lastEmitted = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor[] lanes;
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private ScheduledExecutorService sweeper;
+
+    public EphemeralSignalService(SimpMessagingTemplate messagingTemplate,
+                                  @Value("${chattr.signals.debounce-window-ms:1000}") long windowMillis,
+                                  @Value("${chattr.signals.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${chattr.signals.delivery-threads:2}") int deliveryThreads) {
+        this.messagingTemplate = messagingTemplate;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.lanes = new ThreadPoolExecutor[Math.max(1, deliveryThreads)];
+        int laneCapacity = Math.max(1, queueCapacity / lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            String name = "signal-delivery-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(laneCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (runnable, executor) -> {
+                        if (!executor.isShutdown()) {
+                            enqueueUnderLoad((Delivery) runnable, executor.getQueue());
+                        }
+                    });
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "signal-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, TimeUnit.NANOSECONDS.toMillis(windowNanos));
+        sweeper.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdownNow();
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdownNow();
+        }
+    }
+
+    public void send(String destination, ChatSignal signal) {
+        if (signal.getReceiver() == null || signal.getReceiver().equals(signal.getSender())) {
+            return;
+        }
+        boolean active = !Boolean.FALSE.equals(signal.getActive());
+        signal.setActive(active);
+
+        long now = System.nanoTime();
+        String key = destination + '\n' + signal.getSender() + '\n' + signal.getReceiver();
+        boolean[] emit = new boolean[1];
+        // One atomic decision per pair, so two concurrent repeats cannot both go out.
+        lastEmitted.compute(key, (pair, previous) -> {
+            if (previous != null && previous.active() == active && now - previous.at() < windowNanos) {
+                return previous;
+            }
+            emit[0] = true;
+            return new Emission(active, now);
+        });
+        if (!emit[0]) {
+            coalesced.incrementAndGet();
+            return;
+        }
+
+        lanes[Math.floorMod(key.hashCode(), lanes.length)].execute(new Delivery(destination, signal, now));
+    }
+
+    public Map<String, Object> getStats() {
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return Map.of(
+                "delivered", delivered.get(),
+                "coalesced", coalesced.get(),
+                "dropped", dropped.get(),
+                "queued", queued,
+                "tracked", lastEmitted.size()
+        );
+    }
+
+    /**
+     * Forgets pairs whose last signal is older than the window; they no longer affect coalescing.
+     */
+    void sweep() {
+        long now = System.nanoTime();
+        lastEmitted.values().removeIf(emission -> now - emission.at() >= windowNanos);
+    }
+
+    /**
+     * Makes room in a full lane by evicting its oldest active signal. If only "off" signals are queued, a new
+     * active signal is dropped instead and a new "off" signal waits for the lane to drain.
+     */
+    private void enqueueUnderLoad(Delivery delivery, BlockingQueue<Runnable> queue) {
+        while (!queue.offer(delivery)) {
+            if (evictOldestActive(queue)) {
+                continue;
+            }
+            if (delivery.active) {
+                dropped.incrementAndGet();
+                return;
+            }
+            try {
+                queue.put(delivery);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.incrementAndGet();
+            }
+            return;
+        }
+    }
+
+    private boolean evictOldestActive(BlockingQueue<Runnable> queue) {
+        for (Runnable queued : queue) {
+            if (queued instanceof Delivery delivery && delivery.active && queue.remove(delivery)) {
+                dropped.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class Delivery implements Runnable {
+        private final String destination;
+        private final ChatSignal signal;
+        private final boolean active;
+        private final long sentAt;
+
+        Delivery(String destination, ChatSignal signal, long sentAt) {
+            this.destination = destination;
+            this.signal = signal;
+            this.active = signal.getActive();
+            this.sentAt = sentAt;
+        }
+
+        @Override
+        public void run() {
+            if (active && System.nanoTime() - sentAt >= windowNanos) {
+                dropped.incrementAndGet();
+                return;
+            }
+            messagingTemplate.convertAndSendToUser(signal.getReceiver(), destination, signal);
+            delivered.incrementAndGet();
+        }
+    }
+
+    private record Emission(boolean active, long at) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.model.GroupChat;
+import com.devign.chattr.repository.GroupChatRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+@Service
+public class GroupChatService {
+
+    private final GroupChatRepository groupChatRepository;
+    private final GroupMembershipService groupMembershipService;
+
+    public GroupChatService(GroupChatRepository groupChatRepository, GroupMembershipService groupMembershipService) {
+        this.groupChatRepository = groupChatRepository;
+        this.groupMembershipService = groupMembershipService;
+    }
+
+    /**
+     * Creates the group with its creator as the first member, in one transaction so a group is never left
+     * without its owner.
+     */
+    @Transactional
+    public GroupChat createGroup(String groupName, String createdBy) {
+        GroupChat groupChat = groupChatRepository.save(GroupChat.builder()
+                .groupName(groupName)
+                .createdBy(createdBy)
+                .build());
+        groupMembershipService.join(groupChat.getId(), createdBy);
+        groupChat.setMemberCount(1);
+        return groupChat;
+    }
+}
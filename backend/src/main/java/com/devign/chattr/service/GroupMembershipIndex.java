@@ -0,0 +1,197 @@
+package com.devign.chattr.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ConcurrentLruCache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Group membership lookups for the message path (group id to members, and user to groups) without touching
+ * the database once warm.
+ * <p>
+ * Entries are read through a per-node LRU cache, then Redis sets ({@code group:members:{id}},
+ * {@code user:groups:{user}}), and only then Postgres. Joins and leaves update the Redis sets and are announced on
+ * {@code group:membership} so every node drops its cached copies.
+ * <p>
+ * Each set has a version key that every join and leave bumps. A set rebuilt from Postgres is only written back
+ * if its version has not moved since the query, so a change committed in between is never overwritten by the
+ * older copy. Local entries also expire after {@code chattr.groups.local-ttl-ms}, which bounds how long a
+ * missed eviction message or a load racing an eviction can leave one stale.
+ */
+@Service
+public class GroupMembershipIndex implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupMembershipIndex.class);
+
+    private static final String MEMBERS_PREFIX = "group:members:";
+    private static final String USER_GROUPS_PREFIX = "user:groups:";
+    private static final String MEMBERS_VERSION_PREFIX = "group:members-version:";
+    private static final String USER_GROUPS_VERSION_PREFIX = "user:groups-version:";
+    private static final String MEMBERSHIP_CHANNEL = "group:membership";
+
+    private static final RedisScript<Long> MEMBERSHIP_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/group-membership.lua"), Long.class);
+    private static final RedisScript<Long> LOAD_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/group-membership-load.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final GroupMembershipService groupMembershipService;
+    private final Duration redisTtl;
+    private final long localTtlNanos;
+    private final ConcurrentLruCache<Long, Cached<Set<String>>> membersByGroup;
+    private final ConcurrentLruCache<String, Cached<Set<Long>>> groupsByUser;
+
+    public GroupMembershipIndex(StringRedisTemplate redisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                GroupMembershipService groupMembershipService,
+                                @Value("${chattr.groups.cached-groups:10000}") int cachedGroups,
+                                @Value("${chattr.groups.cached-users:100000}") int cachedUsers,
+                                @Value("${chattr.groups.redis-ttl-minutes:60}") long redisTtlMinutes,
+                                @Value("${chattr.groups.local-ttl-ms:5000}") long localTtlMillis) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.groupMembershipService = groupMembershipService;
+        this.redisTtl = Duration.ofMinutes(redisTtlMinutes);
+        this.localTtlNanos = TimeUnit.MILLISECONDS.toNanos(localTtlMillis);
+        this.membersByGroup = new ConcurrentLruCache<>(cachedGroups, groupId -> cached(() -> loadMembers(groupId)));
+        this.groupsByUser = new ConcurrentLruCache<>(cachedUsers, username -> cached(() -> loadGroups(username)));
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(MEMBERSHIP_CHANNEL));
+    }
+
+    public boolean isMember(Long groupId, String username) {
+        return getMembers(groupId).contains(username);
+    }
+
+    public Set<String> getMembers(Long groupId) {
+        return read(membersByGroup, groupId);
+    }
+
+    public Set<Long> getGroups(String username) {
+        return read(groupsByUser, username);
+    }
+
+    /**
+     * Records a join that has already been committed to the database.
+     */
+    public void onJoined(Long groupId, String username) {
+        update(groupId, username, true);
+    }
+
+    /**
+     * Records a leave that has already been committed to the database.
+     */
+    public void onLeft(Long groupId, String username) {
+        update(groupId, username, false);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            evict(Long.parseLong(body.substring(0, separator)), body.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed membership message {}", body);
+        }
+    }
+
+    private void update(Long groupId, String username, boolean joined) {
+        redisTemplate.execute(MEMBERSHIP_SCRIPT,
+                List.of(MEMBERS_PREFIX + groupId, USER_GROUPS_PREFIX + username,
+                        MEMBERS_VERSION_PREFIX + groupId, USER_GROUPS_VERSION_PREFIX + username),
+                username, String.valueOf(groupId), joined ? "1" : "0", String.valueOf(redisTtl.toMillis()));
+        evict(groupId, username);
+        redisTemplate.convertAndSend(MEMBERSHIP_CHANNEL, groupId + ":" + username);
+    }
+
+    private void evict(Long groupId, String username) {
+        membersByGroup.remove(groupId);
+        groupsByUser.remove(username);
+    }
+
+    private <K, V> V read(ConcurrentLruCache<K, Cached<V>> cache, K key) {
+        Cached<V> entry = cache.get(key);
+        if (System.nanoTime() - entry.loadedAt() > localTtlNanos) {
+            cache.remove(key);
+            entry = cache.get(key);
+        }
+        return entry.value();
+    }
+
+    private static <V> Cached<V> cached(Supplier<V> loader) {
+        // Age is counted from the start of the load, since that is when the data was read.
+        long startedAt = System.nanoTime();
+        return new Cached<>(loader.get(), startedAt);
+    }
+
+    private Set<String> loadMembers(Long groupId) {
+        String key = MEMBERS_PREFIX + groupId;
+        Set<String> cached = redisTemplate.opsForSet().members(key);
+        if (cached != null && !cached.isEmpty()) {
+            return Set.copyOf(cached);
+        }
+        String versionKey = MEMBERS_VERSION_PREFIX + groupId;
+        String version = redisTemplate.opsForValue().get(versionKey);
+        Set<String> members = Set.copyOf(groupMembershipService.getMemberUsernames(groupId));
+        store(key, versionKey, version, members);
+        return members;
+    }
+
+    private Set<Long> loadGroups(String username) {
+        String key = USER_GROUPS_PREFIX + username;
+        Set<String> cached = redisTemplate.opsForSet().members(key);
+        if (cached != null && !cached.isEmpty()) {
+            return cached.stream().map(Long::valueOf).collect(Collectors.toUnmodifiableSet());
+        }
+        String versionKey = USER_GROUPS_VERSION_PREFIX + username;
+        String version = redisTemplate.opsForValue().get(versionKey);
+        Set<Long> groups = Set.copyOf(groupMembershipService.getGroupIds(username));
+        store(key, versionKey, version, groups.stream().map(String::valueOf).toList());
+        return groups;
+    }
+
+    /**
+     * Writes a set rebuilt from Postgres, unless it reappeared or a join or leave bumped its version after
+     * {@code version} was read.
+     */
+    private void store(String key, String versionKey, String version, Collection<String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(values.size() + 2);
+        args.add(version == null ? "" : version);
+        args.add(String.valueOf(redisTtl.toMillis()));
+        args.addAll(values);
+        redisTemplate.execute(LOAD_SCRIPT, List.of(key, versionKey), args.toArray());
+    }
+
+    private record Cached<V>(V value, long loadedAt) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.dto.GroupMemberPage;
+import com.devign.chattr.model.GroupChat;
+import com.devign.chattr.model.GroupMembership;
+import com.devign.chattr.repository.GroupChatRepository;
+import com.devign.chattr.repository.GroupMembershipRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Group membership as individual {@code group_memberships} rows. Joining or leaving is one conditional insert or
+ * delete plus a counter update, whatever the size of the group.
+ */
+@Service
+public class GroupMembershipService {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final GroupChatRepository groupChatRepository;
+    private final GroupMembershipRepository groupMembershipRepository;
+
+    public GroupMembershipService(GroupChatRepository groupChatRepository,
+                                  GroupMembershipRepository groupMembershipRepository) {
+        this.groupChatRepository = groupChatRepository;
+        this.groupMembershipRepository = groupMembershipRepository;
+    }
+
+    /**
+     * Returns false when the user was already a member.
+     */
+    @Transactional
+    public boolean join(Long groupId, String username) {
+        if (groupMembershipRepository.insertIfAbsent(groupId, username) == 0) {
+            return false;
+        }
+        groupChatRepository.adjustMemberCount(groupId, 1);
+        return true;
+    }
+
+    /**
+     * Returns false when the user was not a member.
+     */
+    @Transactional
+    public boolean leave(Long groupId, String username) {
+        if (groupMembershipRepository.deleteByGroupIdAndUsername(groupId, username) == 0) {
+            return false;
+        }
+        groupChatRepository.adjustMemberCount(groupId, -1);
+        return true;
+    }
+
+    /**
+     * Members in join order, {@code limit} at a time; pass the previous page's {@code nextCursor} as {@code after}.
+     */
+    public GroupMemberPage getMembers(GroupChat group, Long after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<GroupMembership> members = groupMembershipRepository.findByGroupIdAndIdGreaterThanOrderByIdAsc(
+                group.getId(), after == null ? 0L : after, Pageable.ofSize(pageSize + 1));
+        boolean hasMore = members.size() > pageSize;
+        if (hasMore) {
+            members = members.subList(0, pageSize);
+        }
+        return GroupMemberPage.builder()
+                .members(members)
+                .memberCount(group.getMemberCount())
+                .nextCursor(hasMore ? members.get(members.size() - 1).getId() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    public List<String> getMemberUsernames(Long groupId) {
+        return groupMembershipRepository.findUsernamesByGroupId(groupId);
+    }
+
+    public List<Long> getGroupIds(String username) {
+        return groupMembershipRepository.findGroupIdsByUsername(username);
+    }
+}
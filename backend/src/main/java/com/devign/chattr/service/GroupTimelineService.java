@@ -0,0 +1,68 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.dto.GroupTimelinePage;
+import com.devign.chattr.model.GroupMessage;
+import com.devign.chattr.repository.GroupMessageRepository;
+import com.devign.chattr.util.MessageCursor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Service
+public class GroupTimelineService {
+
+    private final GroupMessageRepository groupMessageRepository;
+
+    public GroupTimelineService(GroupMessageRepository groupMessageRepository) {
+        this.groupMessageRepository = groupMessageRepository;
+    }
+
+    /**
+     * Returns one page of a group's messages, oldest first, using the same cursors as chat history. Without a
+     * cursor this is the latest page. {@code since} returns what arrived after a client's last-seen time, oldest
+     * first; keep paging with {@code after=nextCursor} while {@code hasMore} is set.
+     */
+    public GroupTimelinePage getTimeline(Long groupId, String before, String after, LocalDateTime since, Integer limit) {
+        int size = limit == null
+                ? ChatHistoryService.DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(limit, ChatHistoryService.MAX_PAGE_SIZE));
+        // Fetch one extra row to learn whether another page exists.
+        Pageable page = PageRequest.of(0, size + 1);
+
+        boolean ascending = after != null || since != null;
+        List<GroupMessage> messages;
+        if (after != null) {
+            MessageCursor cursor = MessageCursor.decode(after);
+            messages = groupMessageRepository.findInGroupAfter(groupId, cursor.timestamp(), cursor.id(), page);
+        } else if (since != null) {
+            messages = groupMessageRepository.findInGroupSince(groupId, since, page);
+        } else if (before != null) {
+            MessageCursor cursor = MessageCursor.decode(before);
+            messages = groupMessageRepository.findInGroupBefore(groupId, cursor.timestamp(), cursor.id(), page);
+        } else {
+            messages = groupMessageRepository.findLatestInGroup(groupId, page);
+        }
+
+        boolean hasMore = messages.size() > size;
+        messages = new ArrayList<>(messages.subList(0, Math.min(size, messages.size())));
+        if (!ascending) {
+            Collections.reverse(messages);
+        }
+
+        GroupTimelinePage.GroupTimelinePageBuilder timeline = GroupTimelinePage.builder()
+                .messages(messages)
+                .hasMore(hasMore);
+        if (!messages.isEmpty()) {
+            GroupMessage oldest = messages.get(0);
+            GroupMessage newest = messages.get(messages.size() - 1);
+            timeline.previousCursor(new MessageCursor(oldest.getTimestamp(), oldest.getId()).encode());
+            timeline.nextCursor(new MessageCursor(newest.getTimestamp(), newest.getId()).encode());
+        }
+        return timeline.build();
+    }
+}
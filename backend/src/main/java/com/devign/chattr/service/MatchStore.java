@@ -0,0 +1,21 @@
+package com.devign.chattr.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bucket queues behind {@link MatchmakingEngine}; {@link RedisMatchStore} in production. Both calls return the
+ * pairs they made as a flat list {@code [a1, b1, a2, b2, ...]}.
+ */
+interface MatchStore {
+
+    /**
+     * Pairs each joining user with the longest-waiting user of {@code queueKey} and queues the ones left over.
+     */
+    List<String> join(String queueKey, Collection<String> joining, long now);
+
+    /**
+     * Pairs users across buckets once they have waited long enough for the relaxed criteria.
+     */
+    List<String> relax(long now);
+}
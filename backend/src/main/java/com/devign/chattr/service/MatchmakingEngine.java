@@ -0,0 +1,201 @@
+package com.devign.chattr.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects matchmaking requests in lock-free per-bucket queues and pairs them in periodic batch ticks.
+ * Buckets are sharded across a fixed set of tick threads, so each bucket is only ever drained by one thread
+ * and costs a single {@link MatchStore} call (one Redis round trip) per tick no matter how many users joined it.
+ * <p>
+ * Users left waiting are widened first to same-purpose buckets and then to any bucket as their wait grows,
+ * and entries that outlive the queue TTL are dropped. Preferences are closed enums, so there is one bucket per
+ * combination and the relaxation pass (which compares every pair of buckets) stays small.
+ */
+@Component
+public class MatchmakingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchmakingEngine.class);
+
+    static final String QUEUE_PREFIX = "match:queue:";
+    static final String BUCKETS_KEY = "match:buckets";
+    static final String WAITING_PREFIX = "match:waiting:";
+    static final String PAIRED_PREFIX = "match:paired:";
+
+    private final MatchStore store;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long tickMillis;
+    private final int batchSize;
+    private final long relaxIntervalMillis;
+    private final Shard[] shards;
+    private final Map<String, String> pendingBuckets = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public MatchmakingEngine(StringRedisTemplate redisTemplate,
+                             SimpMessagingTemplate messagingTemplate,
+                             @Value("${chattr.matchmaking.tick-ms:50}") long tickMillis,
+                             @Value("${chattr.matchmaking.batch-size:500}") int batchSize,
+                             @Value("${chattr.matchmaking.shards:0}") int shardCount,
+                             @Value("${chattr.matchmaking.queue-ttl-ms:300000}") long queueTtlMillis,
+                             @Value("${chattr.matchmaking.relax-interval-ms:1000}") long relaxIntervalMillis,
+                             @Value("${chattr.matchmaking.relax-purpose-after-ms:10000}") long samePurposeAfterMillis,
+                             @Value("${chattr.matchmaking.relax-any-after-ms:30000}") long anyBucketAfterMillis) {
+        this(new RedisMatchStore(redisTemplate, queueTtlMillis, samePurposeAfterMillis, anyBucketAfterMillis),
+                messagingTemplate, tickMillis, batchSize, shardCount, relaxIntervalMillis);
+    }
+
+    MatchmakingEngine(MatchStore store, SimpMessagingTemplate messagingTemplate, long tickMillis, int batchSize,
+                      int shardCount, long relaxIntervalMillis) {
+        this.store = store;
+        this.messagingTemplate = messagingTemplate;
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+        this.relaxIntervalMillis = relaxIntervalMillis;
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(shards.length + 1, runnable -> {
+            Thread thread = new Thread(runnable, "matchmaking-tick-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Shard shard : shards) {
+            scheduler.scheduleAtFixedRate(() -> tick(shard), tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+        scheduler.scheduleWithFixedDelay(this::relax, relaxIntervalMillis, relaxIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public enum GenderPreference { MALE, FEMALE, ANY }
+
+    public enum Purpose { CHAT, FRIENDSHIP, DATING }
+
+    /**
+     * Parses a request parameter case-insensitively, rejecting anything outside {@code type} with
+     * {@link IllegalArgumentException}.
+     */
+    public static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("Unknown " + type.getSimpleName() + " '" + value + "', expected one of "
+                + Arrays.toString(type.getEnumConstants()));
+    }
+
+    static String queueKey(GenderPreference genderPreference, Purpose purpose) {
+        return QUEUE_PREFIX + genderPreference + ":" + purpose;
+    }
+
+    static String purposeOf(String queueKey) {
+        return queueKey.substring(queueKey.lastIndexOf(':') + 1);
+    }
+
+    public void submit(String username, String queueKey) {
+        pendingBuckets.put(username, queueKey);
+        shardFor(queueKey).bucket(queueKey).offer(username);
+    }
+
+    /**
+     * Drops a request that has not reached Redis yet. Returns true if one was pending.
+     */
+    public boolean cancel(String username) {
+        return pendingBuckets.remove(username) != null;
+    }
+
+    private Shard shardFor(String queueKey) {
+        return shards[Math.floorMod(queueKey.hashCode(), shards.length)];
+    }
+
+    private void tick(Shard shard) {
+        for (Map.Entry<String, ConcurrentLinkedQueue<String>> entry : shard.buckets.entrySet()) {
+            ConcurrentLinkedQueue<String> queue = entry.getValue();
+            while (!queue.isEmpty()) {
+                try {
+                    flush(entry.getKey(), queue);
+                } catch (Exception e) {
+                    log.error("Matchmaking tick failed for {}", entry.getKey(), e);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void flush(String queueKey, ConcurrentLinkedQueue<String> queue) {
+        Set<String> joining = new LinkedHashSet<>();
+        String username;
+        while (joining.size() < batchSize && (username = queue.poll()) != null) {
+            // Skip requests that were cancelled or superseded by a request for another bucket.
+            if (pendingBuckets.remove(username, queueKey)) {
+                joining.add(username);
+            }
+        }
+        if (joining.isEmpty()) {
+            return;
+        }
+        notifyMatches(store.join(queueKey, joining, System.currentTimeMillis()));
+    }
+
+    private void relax() {
+        try {
+            notifyMatches(store.relax(System.currentTimeMillis()));
+        } catch (Exception e) {
+            log.error("Matchmaking relaxation pass failed", e);
+        }
+    }
+
+    private void notifyMatches(List<String> matches) {
+        if (matches == null) {
+            return;
+        }
+        for (int i = 0; i + 1 < matches.size(); i += 2) {
+            notifyMatch(matches.get(i), matches.get(i + 1));
+        }
+    }
+
+    private void notifyMatch(String username, String otherUsername) {
+        messagingTemplate.convertAndSendToUser(username, "/queue/match", username + " matched with " + otherUsername);
+        messagingTemplate.convertAndSendToUser(otherUsername, "/queue/match", otherUsername + " matched with " + username);
+    }
+
+    private static class Shard {
+        private final Map<String, ConcurrentLinkedQueue<String>> buckets = new ConcurrentHashMap<>();
+
+        ConcurrentLinkedQueue<String> bucket(String queueKey) {
+            return buckets.computeIfAbsent(queueKey, key -> new ConcurrentLinkedQueue<>());
+        }
+    }
+}
@@ -1,75 +1,91 @@
 package com.devign.chattr.service;
 
+import com.devign.chattr.dto.MatchQueueStats;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+
+import static com.devign.chattr.service.MatchmakingEngine.BUCKETS_KEY;
+import static com.devign.chattr.service.MatchmakingEngine.PAIRED_PREFIX;
+import static com.devign.chattr.service.MatchmakingEngine.QUEUE_PREFIX;
+import static com.devign.chattr.service.MatchmakingEngine.WAITING_PREFIX;
 
 @Service
 public class MatchmakingService {
-    
+
+    private static final RedisScript<String> CANCEL_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/match-cancel.lua"), String.class);
+
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private StringRedisTemplate redisTemplate;
 
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
-    public void startMatchmaking(String username, String genderPreference, String purposePreference) {
-        MatchmakingPreferences preferences = new MatchmakingPreferences(genderPreference, purposePreference);
-        redisTemplate.opsForValue().set(username, preferences);
+    @Autowired
+    private MatchmakingEngine matchmakingEngine;
 
-        Optional<String> match = findMatch(username);
-        match.ifPresent(otherUsername -> {
-            messagingTemplate.convertAndSend("/topic/messages", username + " matched with " + otherUsername);
-            messagingTemplate.convertAndSend("/topic/messages", otherUsername + " matched with " + username);
-        });
+    public void startMatchmaking(String username, MatchmakingEngine.GenderPreference genderPreference,
+                                 MatchmakingEngine.Purpose purposePreference) {
+        matchmakingEngine.submit(username, MatchmakingEngine.queueKey(genderPreference, purposePreference));
     }
 
     public void cancelMatchmaking(String username) {
-        Optional<String> match = findMatch(username);
+        matchmakingEngine.cancel(username);
 
-        redisTemplate.delete(username);
+        String otherUser = redisTemplate.execute(CANCEL_SCRIPT,
+                List.of(WAITING_PREFIX + username, PAIRED_PREFIX + username),
+                username, PAIRED_PREFIX);
 
-        match.ifPresent(otherUser -> {
-            redisTemplate.delete(otherUser);
-            messagingTemplate.convertAndSend("/topic/messages", username + " has canceled matchmaking with you.");
-        });
+        if (otherUser != null) {
+            messagingTemplate.convertAndSendToUser(otherUser, "/queue/match", username + " has canceled matchmaking with you.");
+        }
     }
 
     public Optional<String> findMatch(String username) {
-        MatchmakingPreferences userPref = (MatchmakingPreferences) redisTemplate.opsForValue().get(username);
-
-        if (userPref == null) return Optional.empty();
-
-        for (String key : redisTemplate.keys("*")) {
-            if (!key.equals(username)) {
-                MatchmakingPreferences otherPref = (MatchmakingPreferences) redisTemplate.opsForValue().get(key);
-                if (otherPref.getGenderPreference().equals(userPref.getGenderPreference())
-                        && otherPref.getPurposePreference().equals(userPref.getPurposePreference())) {
-                    return Optional.of(key);
-                }
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(redisTemplate.opsForValue().get(PAIRED_PREFIX + username));
     }
 
-    private static class MatchmakingPreferences {
-        private final String genderPreference;
-        private final String purposePreference;
-
-        public MatchmakingPreferences(String genderPreference, String purposePreference) {
-            this.genderPreference = genderPreference;
-            this.purposePreference = purposePreference;
+    public List<MatchQueueStats> getQueueStats() {
+        Set<String> buckets = redisTemplate.opsForSet().members(BUCKETS_KEY);
+        List<MatchQueueStats> stats = new ArrayList<>();
+        if (buckets == null) {
+            return stats;
         }
-
-        public String getGenderPreference() {
-            return genderPreference;
+        long now = System.currentTimeMillis();
+        for (String bucket : buckets) {
+            Long size = redisTemplate.opsForZSet().zCard(bucket);
+            if (size == null || size == 0) {
+                continue;
+            }
+            // Queues are ordered oldest first, so the p-th wait percentile sits at rank (1 - p) * (size - 1).
+            stats.add(MatchQueueStats.builder()
+                    .bucket(bucket.substring(QUEUE_PREFIX.length()))
+                    .queueLength(size)
+                    .p50WaitMs(waitAtRank(bucket, (long) (0.50 * (size - 1)), now))
+                    .p90WaitMs(waitAtRank(bucket, (long) (0.10 * (size - 1)), now))
+                    .p99WaitMs(waitAtRank(bucket, (long) (0.01 * (size - 1)), now))
+                    .maxWaitMs(waitAtRank(bucket, 0, now))
+                    .build());
         }
+        return stats;
+    }
 
-        public String getPurposePreference() {
-            return purposePreference;
+    private long waitAtRank(String bucket, long rank, long now) {
+        Set<ZSetOperations.TypedTuple<String>> entry = redisTemplate.opsForZSet().rangeWithScores(bucket, rank, rank);
+        if (entry == null || entry.isEmpty()) {
+            return 0;
         }
+        Double enqueuedAt = entry.iterator().next().getScore();
+        return enqueuedAt == null ? 0 : Math.max(0, now - enqueuedAt.longValue());
     }
-}
\ No newline at end of file
+}
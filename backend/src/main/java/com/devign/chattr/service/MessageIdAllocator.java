@@ -0,0 +1,46 @@
+package com.devign.chattr.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out ids from a table's identity sequence in blocks, so rows can be broadcast with their final id
+ * before they are written and inserted later with explicit ids in JDBC batches.
+ * <p>
+ * Ids are unique but not ordered across nodes: each node works through its own block, so a later message can
+ * get a lower id than an earlier one from another node. Anything that needs message order (history and
+ * timeline cursors, read watermarks) compares {@code (timestamp, id)}, with the id only breaking ties.
+ */
+class MessageIdAllocator {
+
+    private static final String RESERVE_SQL =
+            "select nextval(pg_get_serial_sequence(?, 'id')) from generate_series(1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final int blockSize;
+    private final Deque<Long> reserved = new ArrayDeque<>();
+    // Not synchronized: refilling blocks on JDBC, which would pin a virtual thread to its carrier.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    MessageIdAllocator(JdbcTemplate jdbcTemplate, String table, int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+        this.blockSize = blockSize;
+    }
+
+    long next() {
+        lock.lock();
+        try {
+            if (reserved.isEmpty()) {
+                reserved.addAll(jdbcTemplate.queryForList(RESERVE_SQL, Long.class, table, blockSize));
+            }
+            return reserved.poll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.model.ChatMessage;
+import com.devign.chattr.model.GroupMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind persistence for WebSocket messages. Messages get their id and timestamp up front and are
+ * written to Postgres in JDBC batches, so the send path never waits on an insert unless
+ * {@code chattr.persistence.ack=PERSISTED} asks it to. When the buffer stays full the caller writes the
+ * message itself, which slows producers down instead of dropping messages.
+ */
+@Service
+public class MessagePersistenceService {
+
+    private static final String INSERT_CHAT_MESSAGE =
+            "insert into chat_messages (id, sender, receiver, content, conversation_key, timestamp, is_read, is_delivered)"
+            + " values (?, ?, ?, ?, ?, ?, ?, ?) on conflict (id) do nothing";
+    private static final String INSERT_GROUP_MESSAGE =
+            "insert into group_messages (id, sender, group_id, content, timestamp) values (?, ?, ?, ?, ?)"
+            + " on conflict (id) do nothing";
+
+    /** {@code content} is a plain varchar(255) column. */
+    public static final int MAX_CONTENT_LENGTH = 255;
+
+    public enum AckMode { NONE, PERSISTED }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AckMode ackMode;
+    private final long offerTimeoutMillis;
+    private final long ackTimeoutMillis;
+    private final MessageIdAllocator chatIds;
+    private final MessageIdAllocator groupIds;
+    private final WriteBehindQueue<ChatMessage> chatQueue;
+    private final WriteBehindQueue<GroupMessage> groupQueue;
+    // Chat messages that have been handed out but not yet committed, for lookups that cannot wait for the insert.
+    private final Map<Long, ChatMessage> pendingChatMessages = new ConcurrentHashMap<>();
+
+    public MessagePersistenceService(JdbcTemplate jdbcTemplate,
+                                     @Value("${chattr.persistence.ack:NONE}") AckMode ackMode,
+                                     @Value("${chattr.persistence.queue-capacity:10000}") int queueCapacity,
+                                     @Value("${chattr.persistence.batch-size:500}") int batchSize,
+                                     @Value("${chattr.persistence.flush-interval-ms:20}") long flushIntervalMillis,
+                                     @Value("${chattr.persistence.offer-timeout-ms:50}") long offerTimeoutMillis,
+                                     @Value("${chattr.persistence.ack-timeout-ms:5000}") long ackTimeoutMillis,
+                                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ackMode = ackMode;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.ackTimeoutMillis = ackTimeoutMillis;
+        this.chatIds = new MessageIdAllocator(jdbcTemplate, "chat_messages", batchSize);
+        this.groupIds = new MessageIdAllocator(jdbcTemplate, "group_messages", batchSize);
+        this.chatQueue = new WriteBehindQueue<>("chat-messages", queueCapacity, batchSize, flushIntervalMillis, virtualThreads, this::insertChatMessages);
+        this.groupQueue = new WriteBehindQueue<>("group-messages", queueCapacity, batchSize, flushIntervalMillis, virtualThreads, this::insertGroupMessages);
+    }
+
+    @PostConstruct
+    public void start() {
+        chatQueue.start();
+        groupQueue.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        chatQueue.stop();
+        groupQueue.stop();
+    }
+
+    /**
+     * Rejects a message with {@link IllegalArgumentException} before it is given an id, so a row the database
+     * would refuse is never broadcast.
+     */
+    public ChatMessage save(ChatMessage message) {
+        if (message.getReceiver() == null || message.getReceiver().isBlank()) {
+            throw new IllegalArgumentException("Message has no receiver");
+        }
+        validateContent(message.getContent());
+        message.setId(chatIds.next());
+        message.setTimestamp(now());
+        message.setConversationKey(ChatMessage.conversationKey(message.getSender(), message.getReceiver()));
+        message.setIsRead(Boolean.TRUE.equals(message.getIsRead()));
+        message.setIsDelivered(Boolean.TRUE.equals(message.getIsDelivered()));
+        pendingChatMessages.put(message.getId(), message);
+        try {
+            enqueue(chatQueue, message, this::insertChatMessages)
+                    .whenComplete((ignored, error) -> pendingChatMessages.remove(message.getId()));
+        } catch (RuntimeException e) {
+            pendingChatMessages.remove(message.getId());
+            throw e;
+        }
+        return message;
+    }
+
+    /**
+     * A chat message that was saved but is still waiting in the write-behind queue.
+     */
+    public Optional<ChatMessage> findPendingChatMessage(long id) {
+        return Optional.ofNullable(pendingChatMessages.get(id));
+    }
+
+    /**
+     * Messages of one conversation still waiting in the write-behind queue, in no particular order.
+     */
+    public List<ChatMessage> findPendingChatMessages(String conversationKey) {
+        List<ChatMessage> pending = new ArrayList<>();
+        for (ChatMessage message : pendingChatMessages.values()) {
+            if (conversationKey.equals(message.getConversationKey())) {
+                pending.add(message);
+            }
+        }
+        return pending;
+    }
+
+    public GroupMessage save(GroupMessage message) {
+        if (message.getGroupId() == null) {
+            throw new IllegalArgumentException("Message has no group");
+        }
+        validateContent(message.getContent());
+        message.setId(groupIds.next());
+        message.setTimestamp(now());
+        enqueue(groupQueue, message, this::insertGroupMessages);
+        return message;
+    }
+
+    /**
+     * Postgres keeps microseconds; truncating here keeps the broadcast copy equal to the stored row, so
+     * {@code (timestamp, id)} comparisons agree whichever one they were taken from.
+     */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static void validateContent(String content) {
+        if (content == null || content.isEmpty()) {
+            throw new IllegalArgumentException("Message content is empty");
+        }
+        if (content.length() > MAX_CONTENT_LENGTH) {
+            throw new IllegalArgumentException("Message content is longer than " + MAX_CONTENT_LENGTH + " characters");
+        }
+    }
+
+    private <T> CompletableFuture<Void> enqueue(WriteBehindQueue<T> queue, T message, Consumer<List<T>> writer) {
+        try {
+            CompletableFuture<Void> written = queue.offer(message, offerTimeoutMillis);
+            if (written == null) {
+                writer.accept(List.of(message));
+                return CompletableFuture.completedFuture(null);
+            }
+            if (ackMode == AckMode.PERSISTED) {
+                written.get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while persisting message", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Message was not persisted", e);
+        }
+    }
+
+    private void insertChatMessages(List<ChatMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_CHAT_MESSAGE, messages, messages.size(), (ps, message) -> {
+            ps.setLong(1, message.getId());
+            ps.setString(2, message.getSender());
+            ps.setString(3, message.getReceiver());
+            ps.setString(4, message.getContent());
+            ps.setString(5, message.getConversationKey());
+            ps.setTimestamp(6, Timestamp.valueOf(message.getTimestamp()));
+            ps.setBoolean(7, message.getIsRead());
+            ps.setBoolean(8, message.getIsDelivered());
+        });
+    }
+
+    private void insertGroupMessages(List<GroupMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_GROUP_MESSAGE, messages, messages.size(), (ps, message) -> {
+            ps.setLong(1, message.getId());
+            ps.setString(2, message.getSender());
+            ps.setLong(3, message.getGroupId());
+            ps.setString(4, message.getContent());
+            ps.setTimestamp(5, Timestamp.valueOf(message.getTimestamp()));
+        });
+    }
+}
@@ -0,0 +1,123 @@
+package com.devign.chattr.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Node leases on per-user keys: {@code {prefix}{name}} is a sorted set of node ids scored by when each node's
+ * lease expires. A node renews the leases it still holds every {@code ttl / 3}, so a crashed node drops out
+ * within one TTL, and expired entries of any node are pruned whenever the key is renewed.
+ * <p>
+ * Shared by {@link PresenceService} and {@link ClusterUserRegistry}, which differ only in which names they hold.
+ */
+class NodeLeases {
+
+    private static final Logger log = LoggerFactory.getLogger(NodeLeases.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final String nodeId;
+    private final long ttlMillis;
+
+    private ScheduledExecutorService renewer;
+
+    NodeLeases(StringRedisTemplate redisTemplate, String keyPrefix, String nodeId, long ttlMillis) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.nodeId = nodeId;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Renews the names returned by {@code held} every {@code ttl / 3} on a daemon thread.
+     */
+    void start(String threadName, Supplier<Collection<String>> held) {
+        renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, ttlMillis / 3);
+        renewer.scheduleWithFixedDelay(() -> {
+            try {
+                renew(held.get());
+            } catch (Exception e) {
+                log.warn("Renewing {} leases failed", keyPrefix, e);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        renewer.shutdownNow();
+    }
+
+    /**
+     * Extends this node's lease on each name by one TTL and drops leases (of any node) that already expired.
+     */
+    void renew(Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        byte[] member = nodeId.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String name : names) {
+                byte[] key = key(name);
+                connection.zSetCommands().zRemRangeByScore(key, Double.NEGATIVE_INFINITY, now);
+                connection.zSetCommands().zAdd(key, now + ttlMillis, member);
+                connection.keyCommands().pExpire(key, ttlMillis);
+            }
+            return null;
+        });
+    }
+
+    void release(String name) {
+        redisTemplate.opsForZSet().remove(keyPrefix + name, nodeId);
+    }
+
+    /**
+     * Nodes currently holding a lease on {@code name}.
+     */
+    Set<String> holders(String name) {
+        Set<String> nodes = redisTemplate.opsForZSet()
+                .rangeByScore(keyPrefix + name, System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+        return nodes == null ? Set.of() : Set.copyOf(nodes);
+    }
+
+    /**
+     * Whether any node holds a lease on each name, in one pipelined round trip.
+     */
+    Map<String, Boolean> anyHolder(Collection<String> names) {
+        List<String> ordered = new ArrayList<>(names);
+        double now = System.currentTimeMillis();
+        List<Object> counts = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String name : ordered) {
+                connection.zSetCommands().zCount(key(name), now, Double.POSITIVE_INFINITY);
+            }
+            return null;
+        });
+        Map<String, Boolean> held = new LinkedHashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            held.put(ordered.get(i), counts.get(i) instanceof Long count && count > 0);
+        }
+        return held;
+    }
+
+    private byte[] key(String name) {
+        return (keyPrefix + name).getBytes(StandardCharsets.UTF_8);
+    }
+}
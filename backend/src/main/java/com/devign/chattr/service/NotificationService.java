@@ -2,38 +2,97 @@ package com.devign.chattr.service;
 
 import com.devign.chattr.model.ChatMessage;
 import com.devign.chattr.repository.ChatMessageRepository;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.springframework.data.redis.connection.BitFieldSubCommands.BitFieldType.unsigned;
 
 @Service
 public class NotificationService {
 
+    // Delivery flags are one bit per message id, split into 128 KiB bitmaps of 2^20 ids each.
+    private static final String DELIVERED_PREFIX = "message:delivered:";
+    private static final int SEGMENT_BITS = 20;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
     @Autowired
     private ChatMessageRepository chatMessageRepository;
 
     @Autowired
-    private ValueOperations<String, Boolean> valueOperations;
+    private StringRedisTemplate redisTemplate;
 
     public List<ChatMessage> getUnreadMessages(String username) {
-        return chatMessageRepository.findByReceiverAndIsRead(username, false);
+        return chatMessageRepository.findUnreadByReceiver(username);
     }
 
-    public void markAsDelivered(String username) {
-        List<ChatMessage> messages = chatMessageRepository.findByReceiverAndIsDelivered(username, false);
-        for (ChatMessage message : messages) {
-            String key = "message:" + message.getId() + ":delivered";
-            valueOperations.set(key, true); // Store in Redis
-            message.setIsDelivered(true);
-            chatMessageRepository.save(message);
+    /**
+     * Marks every pending message for the user as delivered with one UPDATE and one pipelined Redis write,
+     * however many messages were waiting.
+     */
+    @Transactional
+    public int markAsDelivered(String username) {
+        List<Long> messageIds = chatMessageRepository.markDeliveredReturningIds(username);
+        if (messageIds.isEmpty()) {
+            return 0;
         }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long messageId : messageIds) {
+                connection.stringCommands().setBit(segmentKey(messageId), messageId & SEGMENT_MASK, true);
+            }
+            return null;
+        });
+        return messageIds.size();
     }
 
     public boolean isDelivered(Long messageId) {
-        String key = "message:" + messageId + ":delivered";
-        Boolean delivered = valueOperations.get(key);
-        return delivered != null && delivered;
+        return areDelivered(List.of(messageId)).get(messageId);
+    }
+
+    /**
+     * Looks up delivery flags for many messages in one round trip: one BITFIELD per bitmap segment, pipelined.
+     */
+    public Map<Long, Boolean> areDelivered(Collection<Long> messageIds) {
+        Map<Long, List<Long>> bySegment = new TreeMap<>();
+        for (Long messageId : messageIds) {
+            bySegment.computeIfAbsent(messageId >>> SEGMENT_BITS, segment -> new ArrayList<>()).add(messageId);
+        }
+
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (List<Long> ids : bySegment.values()) {
+                BitFieldSubCommands commands = BitFieldSubCommands.create();
+                for (Long id : ids) {
+                    commands = commands.get(unsigned(1)).valueAt(id & SEGMENT_MASK);
+                }
+                connection.stringCommands().bitField(segmentKey(ids.get(0)), commands);
+            }
+            return null;
+        });
+
+        Map<Long, Boolean> delivered = new LinkedHashMap<>();
+        int segment = 0;
+        for (List<Long> ids : bySegment.values()) {
+            @SuppressWarnings("unchecked")
+            List<Long> bits = (List<Long>) results.get(segment++);
+            for (int i = 0; i < ids.size(); i++) {
+                delivered.put(ids.get(i), bits != null && bits.get(i) != null && bits.get(i) == 1L);
+            }
+        }
+        return delivered;
+    }
+
+    private static byte[] segmentKey(Long messageId) {
+        return (DELIVERED_PREFIX + (messageId >>> SEGMENT_BITS)).getBytes(StandardCharsets.UTF_8);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package com.devign.chattr.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated pool so login bursts queue here instead of tying up
+ * servlet threads. BCrypt is pure CPU, so the pool is sized to the cores rather than run on virtual threads,
+ * and its queue is bounded: once it is full, calls fail fast with {@link RejectedExecutionException} and the
+ * API answers 503.
+ * <p>
+ * With {@code chattr.auth.bcrypt-strength} unset the cost factor is calibrated at startup to the highest one
+ * whose hash fits in {@code chattr.auth.bcrypt-target-ms} on this machine. Hashes made with a lower cost are
+ * upgraded on the next successful login.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final String unknownUserHash;
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHashingService(@Value("${chattr.auth.bcrypt-strength:0}") int strength,
+                                  @Value("${chattr.auth.bcrypt-target-ms:250}") long targetMillis,
+                                  @Value("${chattr.auth.hashing-threads:0}") int threads,
+                                  @Value("${chattr.auth.hashing-queue-capacity:200}") int queueCapacity) {
+        int resolvedStrength = strength > 0 ? strength : calibrate(targetMillis);
+        this.passwordEncoder = new BCryptPasswordEncoder(resolvedStrength);
+        this.unknownUserHash = passwordEncoder.encode("unknown-user");
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        log.info("BCrypt strength {} on {} hashing threads", resolvedStrength, poolSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    public CompletableFuture<String> hash(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * A null {@code encodedPassword} (unknown user) still costs one full verification, so response timing does
+     * not reveal which usernames exist.
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> {
+            if (encodedPassword == null) {
+                passwordEncoder.matches(rawPassword, unknownUserHash);
+                return false;
+            }
+            return passwordEncoder.matches(rawPassword, encodedPassword);
+        });
+    }
+
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static int calibrate(long targetMillis) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_STRENGTH);
+        probe.encode("calibration"); // warm up
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        // Each step of the cost factor doubles the work.
+        int strength = MIN_STRENGTH;
+        while (strength < MAX_STRENGTH && elapsedMillis * 2 <= targetMillis) {
+            elapsedMillis *= 2;
+            strength++;
+        }
+        return strength;
+    }
+}
@@ -0,0 +1,119 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.util.LatencyHistogram;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-session choice between JSON (the default) and CBOR for outbound STOMP payloads. A client asks for CBOR
+ * with {@code content-type:application/cbor} on its CONNECT frame; payloads are still encoded once as JSON and
+ * transcoded for CBOR sessions on the way out, so the field layout is the same in both encodings.
+ * <p>
+ * CBOR needs binary WebSocket frames, which SockJS cannot carry, so it is only granted on native WebSocket
+ * sessions.
+ */
+@Service
+public class PayloadEncodingService {
+
+    public static final MimeType APPLICATION_CBOR = new MimeType("application", "cbor");
+
+    /** Session attribute set when the transport can carry binary frames. */
+    public static final String BINARY_FRAMES_ATTRIBUTE = "chattr.binaryFrames";
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    private final Set<String> cborSessions = ConcurrentHashMap.newKeySet();
+    // A payload fanned out to many subscribers is one shared array, so it is transcoded once. byte[] hashes by
+    // identity, and entries go away with the payload.
+    private final Map<byte[], byte[]> transcoded = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong jsonBytes = new AtomicLong();
+    private final AtomicLong cborBytes = new AtomicLong();
+    private final LatencyHistogram transcodeLatency = new LatencyHistogram();
+
+    public PayloadEncodingService(ObjectMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        // Same modules and date format as Boot's JSON mapper, so both encodings carry the same fields.
+        this.cborMapper = new ObjectMapper(new CBORFactory())
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * Records the encoding asked for on CONNECT and returns the one granted.
+     */
+    public MimeType negotiate(String sessionId, Map<String, Object> sessionAttributes, MimeType requested) {
+        boolean binaryFrames = sessionAttributes != null
+                && Boolean.TRUE.equals(sessionAttributes.get(BINARY_FRAMES_ATTRIBUTE));
+        if (requested != null && APPLICATION_CBOR.isCompatibleWith(requested) && binaryFrames) {
+            cborSessions.add(sessionId);
+            return APPLICATION_CBOR;
+        }
+        return MimeTypeUtils.APPLICATION_JSON;
+    }
+
+    public boolean isCbor(String sessionId) {
+        return sessionId != null && cborSessions.contains(sessionId);
+    }
+
+    public ObjectMapper getCborMapper() {
+        return cborMapper;
+    }
+
+    public byte[] toCbor(byte[] json) {
+        byte[] cached = transcoded.get(json);
+        if (cached != null) {
+            return cached;
+        }
+        long start = System.nanoTime();
+        byte[] cbor;
+        try {
+            JsonNode tree = jsonMapper.readTree(json);
+            cbor = cborMapper.writeValueAsBytes(tree);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        transcodeLatency.record(System.nanoTime() - start);
+        frames.incrementAndGet();
+        jsonBytes.addAndGet(json.length);
+        cborBytes.addAndGet(cbor.length);
+        transcoded.put(json, cbor);
+        return cbor;
+    }
+
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        cborSessions.remove(event.getSessionId());
+    }
+
+    public Map<String, Object> getStats() {
+        long count = frames.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cborSessions", cborSessions.size());
+        stats.put("transcodedPayloads", count);
+        stats.put("meanJsonBytes", count == 0 ? 0 : jsonBytes.get() / count);
+        stats.put("meanCborBytes", count == 0 ? 0 : cborBytes.get() / count);
+        stats.put("transcodeLatency", transcodeLatency.snapshot());
+        return stats;
+    }
+}
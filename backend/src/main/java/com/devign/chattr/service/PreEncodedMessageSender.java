@@ -0,0 +1,44 @@
+package com.devign.chattr.service;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+
+/**
+ * Encodes an outbound payload once with the broker's message converter and sends that same frame to every
+ * destination. The serialized {@code byte[]} is shared by each copy the brokers make (local subscribers and the
+ * Redis relay alike); only the small per-destination header maps differ.
+ */
+@Service
+public class PreEncodedMessageSender {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public PreEncodedMessageSender(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    public Message<?> encode(Object payload) {
+        Message<?> message = messagingTemplate.getMessageConverter().toMessage(payload, new MessageHeaders(Map.of()));
+        if (message == null) {
+            throw new MessageConversionException("No converter for payload type " + payload.getClass().getName());
+        }
+        return message;
+    }
+
+    public void send(String destination, Message<?> frame) {
+        messagingTemplate.send(destination, frame);
+    }
+
+    public void sendToUsers(String destination, Message<?> frame, String... usernames) {
+        String prefix = messagingTemplate.getUserDestinationPrefix();
+        for (String username : usernames) {
+            messagingTemplate.send(prefix + StringUtils.replace(username, "/", "%2F") + destination, frame);
+        }
+    }
+}
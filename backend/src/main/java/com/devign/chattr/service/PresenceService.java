@@ -0,0 +1,134 @@
+package com.devign.chattr.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks who is online from STOMP session events and inbound heartbeats, entirely outside Postgres.
+ * <p>
+ * Each node keeps its connected users in sharded in-memory maps and holds a {@link NodeLeases} lease on
+ * {@code presence:{user}} for each. A node renews only users whose sessions are still heartbeating, so a
+ * half-dead connection drops out after one TTL, and a crashed node's leases simply age out.
+ */
+@Service
+public class PresenceService {
+
+    private static final String PRESENCE_PREFIX = "presence:";
+    private static final int SHARDS = 16;
+
+    private final NodeLeases leases;
+    private final long ttlMillis;
+    private final List<Map<String, LocalPresence>> shards = new ArrayList<>(SHARDS);
+
+    public PresenceService(StringRedisTemplate redisTemplate,
+                           NodeIdentity nodeIdentity,
+                           @Value("${chattr.presence.ttl-ms:30000}") long ttlMillis) {
+        this.leases = new NodeLeases(redisTemplate, PRESENCE_PREFIX, nodeIdentity.getNodeId(), ttlMillis);
+        this.ttlMillis = ttlMillis;
+        for (int i = 0; i < SHARDS; i++) {
+            shards.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        leases.start("presence-refresh", this::activeUsers);
+    }
+
+    @PreDestroy
+    public void stop() {
+        leases.stop();
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = (String) event.getMessage().getHeaders().get("simpSessionId");
+        if (user == null || sessionId == null) {
+            return;
+        }
+        // Added inside compute so a disconnect that is emptying the entry (e.g. on a page reload) cannot drop it.
+        shardFor(user.getName()).compute(user.getName(), (name, presence) -> {
+            LocalPresence current = presence != null ? presence : new LocalPresence();
+            current.sessions.add(sessionId);
+            current.lastSeen = System.currentTimeMillis();
+            return current;
+        });
+        leases.renew(List.of(user.getName()));
+    }
+
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        Principal user = event.getUser();
+        if (user == null) {
+            return;
+        }
+        LocalPresence remaining = shardFor(user.getName()).computeIfPresent(user.getName(), (name, presence) -> {
+            presence.sessions.remove(event.getSessionId());
+            return presence.sessions.isEmpty() ? null : presence;
+        });
+        if (remaining == null) {
+            leases.release(user.getName());
+            // A session that connected while the lease was being released must not be left offline.
+            if (shardFor(user.getName()).containsKey(user.getName())) {
+                leases.renew(List.of(user.getName()));
+            }
+        }
+    }
+
+    /**
+     * Records activity (any inbound frame, including heartbeats) for a connected user. In-memory only.
+     */
+    public void touch(String username) {
+        LocalPresence presence = shardFor(username).get(username);
+        if (presence != null) {
+            presence.lastSeen = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Answers "which of these users are online" with one pipelined round trip.
+     */
+    public Map<String, Boolean> areOnline(Collection<String> usernames) {
+        return leases.anyHolder(usernames);
+    }
+
+    /**
+     * Users with a session on this node that has shown activity within the TTL.
+     */
+    private List<String> activeUsers() {
+        long staleBefore = System.currentTimeMillis() - ttlMillis;
+        List<String> active = new ArrayList<>();
+        for (Map<String, LocalPresence> shard : shards) {
+            shard.forEach((username, presence) -> {
+                if (presence.lastSeen >= staleBefore) {
+                    active.add(username);
+                }
+            });
+        }
+        return active;
+    }
+
+    private Map<String, LocalPresence> shardFor(String username) {
+        return shards.get(Math.floorMod(username.hashCode(), SHARDS));
+    }
+
+    private static class LocalPresence {
+        private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+        private volatile long lastSeen;
+    }
+}
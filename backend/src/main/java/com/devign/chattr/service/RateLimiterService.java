@@ -0,0 +1,71 @@
+package com.devign.chattr.service;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ConcurrentLruCache;
+
+import java.time.Duration;
+
+/**
+ * Token-bucket limiter shared by the {@code @Ratelimited} aspect and the STOMP inbound interceptor. Buckets live
+ * in Redis under {@code ratelimit:{policy}:{key}} so limits hold across nodes.
+ */
+@Service
+public class RateLimiterService {
+
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    private final ProxyManager<String> proxyManager;
+    private final boolean hybrid;
+    private final DelayParameters delayParameters;
+    // Bucket proxies are reused per client; in hybrid mode each one also carries the node-local token state.
+    private final ConcurrentLruCache<BucketKey, Bucket> buckets;
+
+    public RateLimiterService(ProxyManager<String> proxyManager,
+                              @Value("${chattr.ratelimit.mode:HYBRID}") String mode,
+                              @Value("${chattr.ratelimit.max-cached-buckets:100000}") int maxCachedBuckets,
+                              @Value("${chattr.ratelimit.max-unsynchronized-tokens:2}") long maxUnsynchronizedTokens,
+                              @Value("${chattr.ratelimit.max-unsynchronized-ms:500}") long maxUnsynchronizedMillis) {
+        this.proxyManager = proxyManager;
+        this.hybrid = "HYBRID".equalsIgnoreCase(mode);
+        this.delayParameters = new DelayParameters(maxUnsynchronizedTokens, Duration.ofMillis(maxUnsynchronizedMillis));
+        this.buckets = new ConcurrentLruCache<>(maxCachedBuckets, this::createBucket);
+    }
+
+    public boolean tryConsume(Policy policy, String key) {
+        return buckets.get(new BucketKey(policy, key)).tryConsume(1);
+    }
+
+    private Bucket createBucket(BucketKey key) {
+        RemoteBucketBuilder<String> builder = proxyManager.builder();
+        if (hybrid) {
+            // Consume from a local copy of the bucket and reconcile with Redis once maxUnsynchronizedTokens have
+            // been taken or maxUnsynchronizedMs has passed, whichever comes first. Each node can therefore admit
+            // at most maxUnsynchronizedTokens beyond the shared limit per client.
+            builder = builder.withOptimization(Optimizations.delaying(delayParameters));
+        }
+        return builder.build(KEY_PREFIX + key.policy().name() + ":" + key.key(), key.policy().configuration());
+    }
+
+    /**
+     * Allows {@code capacity} calls per {@code refillPeriod}, refilled gradually.
+     */
+    public record Policy(String name, long capacity, Duration refillPeriod) {
+
+        public BucketConfiguration configuration() {
+            return BucketConfiguration.builder()
+                    .addLimit(Bandwidth.builder().capacity(capacity).refillGreedy(capacity, refillPeriod).build())
+                    .build();
+        }
+    }
+
+    private record BucketKey(Policy policy, String key) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.model.ChatMessage;
+import com.devign.chattr.repository.ChatMessageRepository;
+import com.devign.chattr.repository.ReadReceiptRepository;
+import com.devign.chattr.util.MessageCursor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read receipts as a per-conversation watermark: "reader has read everything up to this message", ordered by
+ * the message's {@code (timestamp, id)} because ids are not ordered across nodes. Watermarks only move forward,
+ * are shared through Redis, and are written to Postgres in coalesced batches, so reading a backlog of any size
+ * costs one update.
+ */
+@Service
+public class ReadReceiptService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReceiptService.class);
+
+    private static final String WATERMARK_PREFIX = "read:watermark:";
+    private static final String UPSERT_RECEIPT =
+            "insert into read_receipts (reader, conversation_key, last_read_message_id, last_read_at, updated_at)"
+            + " values (?, ?, ?, ?, ?)"
+            + " on conflict (reader, conversation_key) do update set"
+            + " last_read_message_id = excluded.last_read_message_id, last_read_at = excluded.last_read_at,"
+            + " updated_at = excluded.updated_at"
+            + " where read_receipts.last_read_at is null or (excluded.last_read_at, excluded.last_read_message_id)"
+            + " > (read_receipts.last_read_at, read_receipts.last_read_message_id)";
+
+    private static final RedisScript<Long> ADVANCE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/read-watermark.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadReceiptRepository readReceiptRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final MessagePersistenceService messagePersistenceService;
+    private final long flushIntervalMillis;
+    private final boolean virtualThreads;
+    private final Map<Watermark.Key, MessageCursor> dirty = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    public ReadReceiptService(StringRedisTemplate redisTemplate,
+                              JdbcTemplate jdbcTemplate,
+                              ReadReceiptRepository readReceiptRepository,
+                              ChatMessageRepository chatMessageRepository,
+                              MessagePersistenceService messagePersistenceService,
+                              @Value("${chattr.receipts.flush-interval-ms:1000}") long flushIntervalMillis,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readReceiptRepository = readReceiptRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.messagePersistenceService = messagePersistenceService;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @PostConstruct
+    public void start() {
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        flusher = Executors.newSingleThreadScheduledExecutor(builder.name("read-receipt-writer").factory());
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        flush();
+    }
+
+    /**
+     * Moves the reader's watermark for the message's conversation up to {@code messageId}, which must be a
+     * message sent to {@code reader}. Returns the message when the watermark advanced, or empty when the
+     * message is unknown, was not sent to the reader, or the watermark was already at or past it; in those
+     * cases no receipt needs to go out.
+     */
+    public Optional<ChatMessage> markRead(String reader, long messageId) {
+        Optional<ChatMessage> seen = messagePersistenceService.findPendingChatMessage(messageId)
+                .filter(message -> reader.equals(message.getReceiver()))
+                .or(() -> chatMessageRepository.findByIdAndReceiver(messageId, reader));
+        if (seen.isEmpty() || reader.equals(seen.get().getSender())) {
+            return Optional.empty();
+        }
+        ChatMessage message = seen.get();
+        MessageCursor watermark = new MessageCursor(message.getTimestamp(), message.getId());
+        Long advanced = redisTemplate.execute(ADVANCE_SCRIPT, List.of(WATERMARK_PREFIX + reader),
+                message.getSender(), String.valueOf(toEpochMicros(watermark.timestamp())), String.valueOf(watermark.id()));
+        if (advanced == null || advanced == 0) {
+            return Optional.empty();
+        }
+        dirty.merge(new Watermark.Key(reader, ChatMessage.conversationKey(reader, message.getSender())), watermark,
+                ReadReceiptService::later);
+        return seen;
+    }
+
+    /**
+     * The reader's watermark in the conversation with {@code partner}, or empty if nothing was read yet.
+     */
+    public Optional<MessageCursor> getWatermark(String reader, String partner) {
+        Object cached = redisTemplate.opsForHash().get(WATERMARK_PREFIX + reader, partner);
+        if (cached instanceof String value && value.indexOf(':') > 0) {
+            int separator = value.indexOf(':');
+            return Optional.of(new MessageCursor(fromEpochMicros(Long.parseLong(value.substring(0, separator))),
+                    Long.parseLong(value.substring(separator + 1))));
+        }
+        return readReceiptRepository.findByReaderAndConversationKey(reader, ChatMessage.conversationKey(reader, partner))
+                .filter(receipt -> receipt.getLastReadAt() != null)
+                .map(receipt -> new MessageCursor(receipt.getLastReadAt(), receipt.getLastReadMessageId()));
+    }
+
+    private void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Watermark> batch = new ArrayList<>(dirty.size());
+        for (Watermark.Key key : dirty.keySet()) {
+            MessageCursor position = dirty.remove(key);
+            if (position != null) {
+                batch.add(new Watermark(key, position));
+            }
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_RECEIPT, batch, batch.size(), (ps, watermark) -> {
+                ps.setString(1, watermark.key().reader());
+                ps.setString(2, watermark.key().conversationKey());
+                ps.setLong(3, watermark.position().id());
+                ps.setTimestamp(4, Timestamp.valueOf(watermark.position().timestamp()));
+                ps.setTimestamp(5, now);
+            });
+        } catch (Exception e) {
+            log.error("Failed to persist {} read watermarks, retrying next flush", batch.size(), e);
+            batch.forEach(watermark -> dirty.merge(watermark.key(), watermark.position(), ReadReceiptService::later));
+        }
+    }
+
+    private static MessageCursor later(MessageCursor a, MessageCursor b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static long toEpochMicros(LocalDateTime timestamp) {
+        Instant instant = timestamp.toInstant(ZoneOffset.UTC);
+        return TimeUnit.SECONDS.toMicros(instant.getEpochSecond()) + instant.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private record Watermark(Key key, MessageCursor position) {
+        private record Key(String reader, String conversationKey) {
+        }
+    }
+}
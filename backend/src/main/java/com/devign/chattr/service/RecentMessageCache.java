@@ -0,0 +1,299 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.model.ChatMessage;
+import com.devign.chattr.util.MessageCursor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most recent messages of hot conversations so the first history page is served without
+ * touching Postgres. A conversation enters the cache in two steps: {@link #beginLoad} registers an empty buffer
+ * that the send path already appends to, and {@link #load} merges the tail read from the database (plus rows
+ * still in the write-behind queue) into it. Nothing sent while the database is read is lost, so a cached buffer
+ * always holds the latest {@code min(capacity, conversation length)} messages.
+ * <p>
+ * Cached copies leave out {@code isRead} and {@code isDelivered}, which change after the message is sent; read
+ * state comes from the read watermark and delivery state from the delivered endpoints.
+ * <p>
+ * By default buffers live in a per-node LRU map. With {@code redis-mirror} enabled they live in capped Redis
+ * lists instead, which every node sees.
+ */
+@Component
+public class RecentMessageCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RecentMessageCache.class);
+    private static final String REDIS_PREFIX = "chat:recent:";
+    private static final String LOADING_MARKER = "loading";
+    private static final Duration LOADING_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final RedisScript<Long> BEGIN_LOAD_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/recent-begin-load.lua"), Long.class);
+    private static final RedisScript<Long> SEED_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/recent-seed.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final boolean redisMirror;
+    private final Duration redisTtl;
+    private final Map<String, RingBuffer> conversations;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public RecentMessageCache(StringRedisTemplate redisTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${chattr.history.cache.messages-per-conversation:100}") int capacity,
+                              @Value("${chattr.history.cache.max-conversations:10000}") int maxConversations,
+                              @Value("${chattr.history.cache.redis-mirror:false}") boolean redisMirror,
+                              @Value("${chattr.history.cache.redis-ttl-minutes:60}") long redisTtlMinutes) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.redisMirror = redisMirror;
+        this.redisTtl = Duration.ofMinutes(redisTtlMinutes);
+        this.conversations = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RingBuffer> eldest) {
+                return size() > maxConversations;
+            }
+        };
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void append(ChatMessage message) {
+        String key = ChatMessage.conversationKey(message.getSender(), message.getReceiver());
+        ChatMessage entry = withoutStatus(message);
+        if (redisMirror) {
+            try {
+                String redisKey = REDIS_PREFIX + key;
+                // RPUSHX only extends lists that were seeded from the database or are being loaded.
+                Long size = redisTemplate.opsForList().rightPushIfPresent(redisKey, objectMapper.writeValueAsString(entry));
+                if (size != null && size > capacity) {
+                    redisTemplate.opsForList().trim(redisKey, -capacity, -1);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to mirror message {} to Redis", message.getId(), e);
+            }
+            return;
+        }
+        RingBuffer buffer;
+        synchronized (conversations) {
+            buffer = conversations.get(key);
+        }
+        if (buffer != null) {
+            buffer.add(entry);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} latest messages, oldest first, if the conversation is cached.
+     */
+    public Optional<List<ChatMessage>> latest(String conversationKey, int limit) {
+        List<ChatMessage> cached = redisMirror ? readRedis(conversationKey) : readLocal(conversationKey);
+        if (cached == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(new ArrayList<>(cached.subList(Math.max(0, cached.size() - limit), cached.size())));
+    }
+
+    /**
+     * Starts caching a conversation before its tail is read from the database, so messages sent meanwhile are
+     * collected and merged by {@link #load}.
+     */
+    public void beginLoad(String conversationKey) {
+        if (redisMirror) {
+            try {
+                redisTemplate.execute(BEGIN_LOAD_SCRIPT, List.of(REDIS_PREFIX + conversationKey),
+                        LOADING_MARKER, String.valueOf(LOADING_TIMEOUT.toMillis()));
+            } catch (Exception e) {
+                log.warn("Failed to start loading Redis history cache for {}", conversationKey, e);
+            }
+            return;
+        }
+        synchronized (conversations) {
+            conversations.computeIfAbsent(conversationKey, key -> new RingBuffer(capacity, true));
+        }
+    }
+
+    /**
+     * Merges messages read from the database (in any order, duplicates allowed) with whatever was appended
+     * since {@link #beginLoad}, and returns the resulting tail, oldest first.
+     */
+    public List<ChatMessage> load(String conversationKey, Collection<ChatMessage> messages) {
+        if (redisMirror) {
+            return loadRedis(conversationKey, messages);
+        }
+        RingBuffer buffer;
+        synchronized (conversations) {
+            buffer = conversations.computeIfAbsent(conversationKey, key -> new RingBuffer(capacity, true));
+        }
+        return buffer.seed(messages);
+    }
+
+    public Map<String, Object> getStats() {
+        int size;
+        synchronized (conversations) {
+            size = conversations.size();
+        }
+        return Map.of(
+                "hits", hits.get(),
+                "misses", misses.get(),
+                "cachedConversations", size,
+                "redisMirror", redisMirror
+        );
+    }
+
+    private List<ChatMessage> loadRedis(String conversationKey, Collection<ChatMessage> messages) {
+        String redisKey = REDIS_PREFIX + conversationKey;
+        List<ChatMessage> tail = new ArrayList<>();
+        try {
+            List<String> current = redisTemplate.opsForList().range(redisKey, 0, -1);
+            List<ChatMessage> merged = new ArrayList<>(messages);
+            if (current != null) {
+                merged.addAll(decode(current));
+            }
+            tail = newest(merged, capacity);
+            List<String> args = new ArrayList<>(tail.size() + 3);
+            args.add(String.valueOf(current == null ? 0 : current.size()));
+            args.add(String.valueOf(capacity));
+            args.add(String.valueOf(redisTtl.toMillis()));
+            for (ChatMessage message : tail) {
+                args.add(objectMapper.writeValueAsString(message));
+            }
+            redisTemplate.execute(SEED_SCRIPT, List.of(redisKey), args.toArray());
+        } catch (Exception e) {
+            log.warn("Failed to seed Redis history cache for {}", conversationKey, e);
+            if (tail.isEmpty()) {
+                tail = newest(messages, capacity);
+            }
+        }
+        return tail;
+    }
+
+    private List<ChatMessage> readLocal(String conversationKey) {
+        RingBuffer buffer;
+        synchronized (conversations) {
+            buffer = conversations.get(conversationKey);
+        }
+        return buffer == null ? null : buffer.snapshot();
+    }
+
+    private List<ChatMessage> readRedis(String conversationKey) {
+        try {
+            List<String> encoded = redisTemplate.opsForList().range(REDIS_PREFIX + conversationKey, 0, -1);
+            if (encoded == null || encoded.isEmpty() || LOADING_MARKER.equals(encoded.get(0))) {
+                return null;
+            }
+            return decode(encoded);
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable Redis history cache for {}", conversationKey, e);
+            redisTemplate.delete(REDIS_PREFIX + conversationKey);
+            return null;
+        }
+    }
+
+    /**
+     * Decodes list entries, skipping the loading marker and messages seen twice (a message appended while a
+     * load was merging it from the write-behind queue).
+     */
+    private List<ChatMessage> decode(List<String> encoded) throws JsonProcessingException {
+        List<ChatMessage> messages = new ArrayList<>(encoded.size());
+        Set<Long> seen = new HashSet<>();
+        for (String json : encoded) {
+            if (LOADING_MARKER.equals(json)) {
+                continue;
+            }
+            ChatMessage message = objectMapper.readValue(json, ChatMessage.class);
+            if (seen.add(message.getId())) {
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * The latest {@code limit} distinct messages in {@code (timestamp, id)} order, without status flags.
+     */
+    private static List<ChatMessage> newest(Collection<ChatMessage> messages, int limit) {
+        TreeMap<MessageCursor, ChatMessage> ordered = new TreeMap<>();
+        for (ChatMessage message : messages) {
+            ordered.put(new MessageCursor(message.getTimestamp(), message.getId()), withoutStatus(message));
+        }
+        while (ordered.size() > limit) {
+            ordered.pollFirstEntry();
+        }
+        return new ArrayList<>(ordered.values());
+    }
+
+    private static ChatMessage withoutStatus(ChatMessage message) {
+        return ChatMessage.builder()
+                .id(message.getId())
+                .sender(message.getSender())
+                .receiver(message.getReceiver())
+                .content(message.getContent())
+                .conversationKey(message.getConversationKey())
+                .timestamp(message.getTimestamp())
+                .build();
+    }
+
+    private static class RingBuffer {
+        private final int capacity;
+        private final ArrayDeque<ChatMessage> messages;
+        private boolean loading;
+
+        RingBuffer(int capacity, boolean loading) {
+            this.capacity = capacity;
+            this.messages = new ArrayDeque<>(capacity);
+            this.loading = loading;
+        }
+
+        synchronized void add(ChatMessage message) {
+            if (messages.size() == capacity) {
+                messages.pollFirst();
+            }
+            messages.addLast(message);
+        }
+
+        synchronized List<ChatMessage> seed(Collection<ChatMessage> loaded) {
+            List<ChatMessage> merged = new ArrayList<>(loaded);
+            merged.addAll(messages);
+            List<ChatMessage> tail = newest(merged, capacity);
+            messages.clear();
+            messages.addAll(tail);
+            loading = false;
+            return tail;
+        }
+
+        /**
+         * Null while the buffer is still being loaded, since it may only hold the newest few messages.
+         */
+        synchronized List<ChatMessage> snapshot() {
+            return loading ? null : new ArrayList<>(messages);
+        }
+    }
+}
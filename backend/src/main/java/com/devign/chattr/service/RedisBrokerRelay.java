@@ -0,0 +1,145 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.util.LatencyHistogram;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Relays broker-bound messages between nodes over Redis pub/sub. Broadcasts to {@code /topic/**} go to every
+ * node; user destinations go only to the nodes the {@link ClusterUserRegistry} lists for that user. Each node
+ * then delivers through its own simple broker, so local fan-out is unchanged.
+ * <p>
+ * Delivery latency is measured from the sender's clock, so it includes any clock skew between nodes.
+ */
+@Component
+@ConditionalOnProperty(name = "chattr.websocket.broker", havingValue = "redis")
+public class RedisBrokerRelay implements ChannelInterceptor, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisBrokerRelay.class);
+
+    private static final String BROADCAST_CHANNEL = "ws:relay:broadcast";
+    private static final String NODE_CHANNEL_PREFIX = "ws:relay:node:";
+    private static final String RELAYED_HEADER = "chattrRelayed";
+    private static final String USER_PREFIX = "/user/";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ClusterUserRegistry userRegistry;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<MessageChannel> brokerChannel;
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public RedisBrokerRelay(StringRedisTemplate redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            ClusterUserRegistry userRegistry,
+                            ObjectMapper objectMapper,
+                            @Qualifier("brokerChannel") ObjectProvider<MessageChannel> brokerChannel) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.userRegistry = userRegistry;
+        this.objectMapper = objectMapper;
+        this.brokerChannel = brokerChannel;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, List.of(
+                new ChannelTopic(BROADCAST_CHANNEL),
+                new ChannelTopic(NODE_CHANNEL_PREFIX + userRegistry.getNodeId())));
+    }
+
+    public Map<String, Object> getLatencyStats() {
+        return latency.snapshot();
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE || destination == null
+                || headers.containsKey(RELAYED_HEADER) || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+        try {
+            if (destination.startsWith("/topic/")) {
+                redisTemplate.convertAndSend(BROADCAST_CHANNEL, envelope(destination, contentType, payload));
+            } else if (destination.startsWith(USER_PREFIX)) {
+                int end = destination.indexOf('/', USER_PREFIX.length());
+                if (end < 0) {
+                    return message;
+                }
+                String username = destination.substring(USER_PREFIX.length(), end).replace("%2F", "/");
+                Set<String> nodes = userRegistry.nodesFor(username);
+                if (nodes != null) {
+                    // The envelope is serialized lazily, and at most once however many nodes the user is on.
+                    String encoded = null;
+                    for (String node : nodes) {
+                        if (!node.equals(userRegistry.getNodeId())) {
+                            if (encoded == null) {
+                                encoded = envelope(destination, contentType, payload);
+                            }
+                            redisTemplate.convertAndSend(NODE_CHANNEL_PREFIX + node, encoded);
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to relay message for {}", destination, e);
+        }
+        return message;
+    }
+
+    private String envelope(String destination, Object contentType, byte[] payload) throws Exception {
+        RelayEnvelope envelope = new RelayEnvelope(userRegistry.getNodeId(), destination,
+                contentType != null ? contentType.toString() : null, payload, System.currentTimeMillis());
+        return objectMapper.writeValueAsString(envelope);
+    }
+
+    @Override
+    public void onMessage(org.springframework.data.redis.connection.Message message, byte[] pattern) {
+        try {
+            RelayEnvelope envelope = objectMapper.readValue(message.getBody(), RelayEnvelope.class);
+            if (userRegistry.getNodeId().equals(envelope.origin())) {
+                return;
+            }
+            latency.record((System.currentTimeMillis() - envelope.sentAt()) * 1_000_000);
+
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination(envelope.destination());
+            if (envelope.contentType() != null) {
+                accessor.setContentType(MimeType.valueOf(envelope.contentType()));
+            }
+            accessor.setHeader(RELAYED_HEADER, Boolean.TRUE);
+            brokerChannel.getObject().send(MessageBuilder.createMessage(envelope.payload(), accessor.getMessageHeaders()));
+        } catch (Exception e) {
+            log.warn("Dropping malformed relay message", e);
+        }
+    }
+
+    record RelayEnvelope(String origin, String destination, String contentType, byte[] payload, long sentAt) {
+    }
+}
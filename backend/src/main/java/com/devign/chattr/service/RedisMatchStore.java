@@ -0,0 +1,81 @@
+package com.devign.chattr.service;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static com.devign.chattr.service.MatchmakingEngine.BUCKETS_KEY;
+import static com.devign.chattr.service.MatchmakingEngine.PAIRED_PREFIX;
+import static com.devign.chattr.service.MatchmakingEngine.WAITING_PREFIX;
+
+/**
+ * Keeps each bucket as a Redis sorted set scored by enqueue time and pairs users atomically in
+ * {@code match-batch.lua} and {@code match-relax.lua}, so every node of the cluster shares the same queues.
+ */
+class RedisMatchStore implements MatchStore {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> BATCH_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/match-batch.lua"), List.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RELAX_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/match-relax.lua"), List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long queueTtlMillis;
+    private final long samePurposeAfterMillis;
+    private final long anyBucketAfterMillis;
+
+    RedisMatchStore(StringRedisTemplate redisTemplate, long queueTtlMillis, long samePurposeAfterMillis,
+                    long anyBucketAfterMillis) {
+        this.redisTemplate = redisTemplate;
+        this.queueTtlMillis = queueTtlMillis;
+        this.samePurposeAfterMillis = samePurposeAfterMillis;
+        this.anyBucketAfterMillis = anyBucketAfterMillis;
+    }
+
+    @Override
+    public List<String> join(String queueKey, Collection<String> joining, long now) {
+        List<String> args = new ArrayList<>(joining.size() + 4);
+        args.add(WAITING_PREFIX);
+        args.add(PAIRED_PREFIX);
+        args.add(String.valueOf(now));
+        args.add(String.valueOf(queueTtlMillis));
+        args.addAll(joining);
+
+        @SuppressWarnings("unchecked")
+        List<String> matches = redisTemplate.execute(BATCH_SCRIPT, List.of(queueKey, BUCKETS_KEY), args.toArray());
+        return matches;
+    }
+
+    @Override
+    public List<String> relax(long now) {
+        Set<String> buckets = redisTemplate.opsForSet().members(BUCKETS_KEY);
+        if (buckets == null || buckets.isEmpty()) {
+            return List.of();
+        }
+        List<String> keys = new ArrayList<>(buckets.size() + 1);
+        keys.add(BUCKETS_KEY);
+        keys.addAll(buckets);
+
+        List<String> args = new ArrayList<>(buckets.size() + 6);
+        args.add(WAITING_PREFIX);
+        args.add(PAIRED_PREFIX);
+        args.add(String.valueOf(now));
+        args.add(String.valueOf(queueTtlMillis));
+        args.add(String.valueOf(samePurposeAfterMillis));
+        args.add(String.valueOf(anyBucketAfterMillis));
+        for (String bucket : buckets) {
+            args.add(MatchmakingEngine.purposeOf(bucket));
+        }
+
+        @SuppressWarnings("unchecked")
+        List<String> matches = redisTemplate.execute(RELAX_SCRIPT, keys, args.toArray());
+        return matches;
+    }
+}
@@ -0,0 +1,171 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.util.BloomFilter;
+import com.devign.chattr.util.JwtUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide JWT revocation keyed by token id.
+ * <p>
+ * Revocations live in Redis as {@code jwt:revoked:{id}} with a TTL equal to the token's remaining lifetime, and
+ * are announced on {@code jwt:revocations} so every node mirrors them in memory. The per-request check is a
+ * Bloom filter probe that answers "not revoked" without touching the map; only filter hits consult it. Expired
+ * entries are swept periodically and the filter is rebuilt from what is left.
+ */
+@Service
+public class TokenRevocationService implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final String REVOKED_PREFIX = "jwt:revoked:";
+    private static final String REVOCATIONS_CHANNEL = "jwt:revocations";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_FILTER_CAPACITY = 10_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final long sweepIntervalMillis;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter = new BloomFilter(MIN_FILTER_CAPACITY, FALSE_POSITIVE_RATE);
+    private ScheduledExecutorService sweeper;
+
+    public TokenRevocationService(StringRedisTemplate redisTemplate,
+                                  RedisMessageListenerContainer listenerContainer,
+                                  @Value("${chattr.auth.revocation-sweep-ms:60000}") long sweepIntervalMillis) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.sweepIntervalMillis = sweepIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(REVOCATIONS_CHANNEL));
+        try {
+            loadFromRedis();
+        } catch (Exception e) {
+            log.warn("Could not load token revocations from Redis, relying on pub/sub only", e);
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Verifies the bearer token and returns its subject, or null when it is malformed, expired or revoked.
+     */
+    public String authenticate(String token) {
+        JwtUtil.VerifiedToken verified = JwtUtil.verifyToken(token);
+        if (verified == null || isRevoked(verified.tokenId())) {
+            return null;
+        }
+        return verified.subject();
+    }
+
+    public boolean revoke(String token) {
+        JwtUtil.VerifiedToken verified = JwtUtil.verifyToken(token);
+        if (verified == null) {
+            return false;
+        }
+        long ttl = verified.expiresAt() - System.currentTimeMillis();
+        if (ttl <= 0) {
+            return true;
+        }
+        remember(verified.tokenId(), verified.expiresAt());
+        redisTemplate.opsForValue().set(REVOKED_PREFIX + verified.tokenId(), String.valueOf(verified.expiresAt()),
+                Duration.ofMillis(ttl));
+        redisTemplate.convertAndSend(REVOCATIONS_CHANNEL, verified.tokenId() + ":" + verified.expiresAt());
+        return true;
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            remember(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed revocation message {}", body);
+        }
+    }
+
+    private void remember(String tokenId, long expiresAt) {
+        revoked.merge(tokenId, expiresAt, Math::max);
+        filter.add(tokenId);
+    }
+
+    private void loadFromRedis() {
+        List<String> keys = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match(REVOKED_PREFIX + "*").count(1000).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            cursor.forEachRemaining(keys::add);
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> expiries = redisTemplate.opsForValue().multiGet(keys);
+        for (int i = 0; i < keys.size(); i++) {
+            String expiresAt = expiries != null ? expiries.get(i) : null;
+            if (expiresAt != null) {
+                remember(keys.get(i).substring(REVOKED_PREFIX.length()), Long.parseLong(expiresAt));
+            }
+        }
+        log.info("Loaded {} token revocations", revoked.size());
+    }
+
+    private void sweep() {
+        try {
+            long now = System.currentTimeMillis();
+            revoked.values().removeIf(expiresAt -> expiresAt <= now);
+            // Bloom filters cannot forget, so rebuild one sized for the survivors and swap it in. Revocations
+            // that land during the rebuild are added to the old filter too and re-added below, never lost.
+            BloomFilter rebuilt = new BloomFilter(Math.max(MIN_FILTER_CAPACITY, revoked.size() * 2), FALSE_POSITIVE_RATE);
+            revoked.keySet().forEach(rebuilt::add);
+            filter = rebuilt;
+            revoked.keySet().forEach(rebuilt::add);
+        } catch (Exception e) {
+            log.warn("Token revocation sweep failed", e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.dto.UnreadCount;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-user unread counters, one Redis hash per user with a field per conversation partner. Every change is
+ * pushed to the user's {@code /user/queue/unread} so clients can keep badges current without polling.
+ */
+@Service
+public class UnreadCounterService {
+
+    private static final String UNREAD_PREFIX = "unread:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public UnreadCounterService(StringRedisTemplate redisTemplate, SimpMessagingTemplate messagingTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    public void increment(String receiver, String sender) {
+        Long count = redisTemplate.opsForHash().increment(UNREAD_PREFIX + receiver, sender, 1);
+        push(receiver, sender, count == null ? 0 : count);
+    }
+
+    public void reset(String reader, String partner) {
+        Long removed = redisTemplate.opsForHash().delete(UNREAD_PREFIX + reader, partner);
+        if (removed != null && removed > 0) {
+            push(reader, partner, 0);
+        }
+    }
+
+    public Map<String, Long> getCounts(String username) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        redisTemplate.opsForHash().entries(UNREAD_PREFIX + username)
+                .forEach((partner, count) -> counts.put((String) partner, Long.parseLong((String) count)));
+        return counts;
+    }
+
+    private void push(String username, String partner, long count) {
+        messagingTemplate.convertAndSendToUser(username, "/queue/unread", new UnreadCount(partner, count));
+    }
+}
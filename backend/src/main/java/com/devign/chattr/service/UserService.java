@@ -25,9 +25,12 @@ public class UserService {
         this.userMapper = userMapper;
     }   
 
+    /**
+     * Creates the user with an already hashed password, see {@link PasswordHashingService#hash}.
+     */
     @Transactional
-    public UserResponse createUser(UserRequest userRequest) {
-        User user = userMapper.toEntity(userRequest); 
+    public UserResponse createUser(UserRequest userRequest, String passwordHash) {
+        User user = userMapper.toEntity(userRequest, passwordHash);
         userRepository.save(user);
         return userMapper.toResponse(user);
     }
@@ -38,17 +41,23 @@ public class UserService {
     }
 
     @Transactional
-    public UserResponse updateUser(UserRequest userRequest) {
+    public UserResponse updateUser(UserRequest userRequest, String passwordHash) {
         return userRepository.findByUsername(userRequest.getUsername())
                 .map(existingUser -> {
                     existingUser.setEmail(userRequest.getEmail());
-                    existingUser.setPassword(userRequest.getPassword()); // You might want to hash this in production
+                    existingUser.setPassword(passwordHash);
                     userRepository.save(existingUser);
                     return userMapper.toResponse(existingUser);
                 })
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    @Transactional
+    public void updatePasswordHash(User user, String passwordHash) {
+        user.setPassword(passwordHash);
+        userRepository.save(user);
+    }
+
     public boolean isEmailTaken(String email, String currentUsername) {
         return userRepository.findByEmail(email)
                 .filter(user -> !user.getUsername().equals(currentUsername))
@@ -0,0 +1,130 @@
+package com.devign.chattr.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bounded buffer drained by a single writer thread, which hands rows to the writer in batches once either
+ * {@code batchSize} rows are waiting or the oldest row has waited {@code maxDelayMillis}. A failed batch is
+ * retried row by row, so the writer must tolerate rows that were already written.
+ */
+class WriteBehindQueue<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private final String name;
+    private final BlockingQueue<Pending<T>> queue;
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final Consumer<List<T>> writer;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    WriteBehindQueue(String name, int capacity, int batchSize, long maxDelayMillis, boolean virtualThread,
+                     Consumer<List<T>> writer) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.writer = writer;
+        Thread.Builder builder = virtualThread ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        this.flusher = builder.name(name + "-writer").unstarted(this::run);
+    }
+
+    void start() {
+        flusher.start();
+    }
+
+    /**
+     * Queues a row for the next batch. Returns null if the queue stayed full for {@code timeoutMillis},
+     * leaving the caller to write the row itself.
+     */
+    CompletableFuture<Void> offer(T item, long timeoutMillis) throws InterruptedException {
+        Pending<T> pending = new Pending<>(item, new CompletableFuture<>());
+        return queue.offer(pending, timeoutMillis, TimeUnit.MILLISECONDS) ? pending.done() : null;
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        List<Pending<T>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        while (!remaining.isEmpty()) {
+            List<Pending<T>> batch = remaining.subList(0, Math.min(batchSize, remaining.size()));
+            write(new ArrayList<>(batch));
+            batch.clear();
+        }
+    }
+
+    private void run() {
+        List<Pending<T>> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Pending<T> first = queue.poll(maxDelayMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending<T> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+                batch = new ArrayList<>(batchSize);
+            } catch (InterruptedException e) {
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(List<Pending<T>> batch) {
+        List<T> rows = new ArrayList<>(batch.size());
+        for (Pending<T> pending : batch) {
+            rows.add(pending.item());
+        }
+        try {
+            writer.accept(rows);
+            batch.forEach(pending -> pending.done().complete(null));
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                log.error("{}: failed to write row {}", name, rows.get(0), e);
+                batch.get(0).done().completeExceptionally(e);
+                return;
+            }
+            // One bad row fails the whole batch; retry the rows one at a time so only that row is lost.
+            log.warn("{}: batch of {} rows failed, retrying row by row", name, rows.size(), e);
+            for (Pending<T> pending : batch) {
+                write(List.of(pending));
+            }
+        }
+    }
+
+    private record Pending<T>(T item, CompletableFuture<Void> done) {
+    }
+}
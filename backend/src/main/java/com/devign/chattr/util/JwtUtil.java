@@ -1,50 +1,99 @@
 package com.devign.chattr.util;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.UUID;
 
 import javax.crypto.SecretKey;
 
 import java.util.concurrent.ConcurrentHashMap;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 
 public class JwtUtil {
     private static final long EXPIRATION_TIME = 86400000;
+    private static final int VERIFIED_CACHE_SIZE = 50_000;
     private static final SecretKey SECRET = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-    private static final ConcurrentHashMap<String, Boolean> invalidatedTokens = new ConcurrentHashMap<>();
+
+    // Built once: the parser is immutable and safe to share between threads.
+    private static final JwtParser PARSER = Jwts.parserBuilder().setSigningKey(SECRET).build();
+
+    // Signature checks are the expensive part of validation, so their outcome is remembered per SHA-256 of the
+    // token (the raw bearer strings are never retained). Entries stop validating once the token expires.
+    private static final ConcurrentHashMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
 
     public static String generateToken(String username) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(SECRET)
                 .compact();
     }
 
-    public static String validateToken(String token) {
+    /**
+     * Checks signature and expiry only; use {@code TokenRevocationService.authenticate} to also honour logouts.
+     */
+    public static VerifiedToken verifyToken(String token) {
+        long now = System.currentTimeMillis();
+        String tokenHash = hash(token);
+        VerifiedToken verified = verifiedTokens.get(tokenHash);
+        if (verified == null) {
+            verified = verify(token, tokenHash);
+            if (verified == null) {
+                return null;
+            }
+            if (verifiedTokens.size() >= VERIFIED_CACHE_SIZE) {
+                evict(now);
+            }
+            verifiedTokens.put(tokenHash, verified);
+        }
+        if (verified.expiresAt() <= now) {
+            verifiedTokens.remove(tokenHash, verified);
+            return null;
+        }
+        return verified;
+    }
+
+    private static VerifiedToken verify(String token, String tokenHash) {
         try {
-            if (invalidatedTokens.containsKey(token)) {
-                return null; // Token has been invalidated
+            Claims claims = PARSER.parseClaimsJws(token).getBody();
+            if (claims.getSubject() == null) {
+                return null;
             }
-            return Jwts.parserBuilder()
-                    .setSigningKey(SECRET)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .getSubject();
-        } catch (JwtException e) {
+            long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+            // Tokens issued before ids were added are identified by their hash.
+            String tokenId = claims.getId() != null ? claims.getId() : tokenHash;
+            return new VerifiedToken(claims.getSubject(), tokenId, expiresAt);
+        } catch (JwtException | IllegalArgumentException e) {
             return null;
         }
     }
 
-    public static void invalidateToken(String token) {
-        invalidatedTokens.put(token, true);
+    private static void evict(long now) {
+        verifiedTokens.values().removeIf(verified -> verified.expiresAt() <= now);
+        if (verifiedTokens.size() >= VERIFIED_CACHE_SIZE) {
+            verifiedTokens.clear();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
-    public static boolean isTokenInvalidated(String token) {
-        return invalidatedTokens.containsKey(token);
+    public record VerifiedToken(String subject, String tokenId, long expiresAt) {
     }
 }
@@ -0,0 +1,35 @@
+package com.devign.chattr.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * Opaque keyset cursor over the {@code (timestamp, id)} order used by message timelines.
+ */
+public record MessageCursor(LocalDateTime timestamp, Long id) implements Comparable<MessageCursor> {
+
+    private static final Comparator<MessageCursor> ORDER =
+            Comparator.comparing(MessageCursor::timestamp).thenComparing(MessageCursor::id);
+
+    public String encode() {
+        String raw = timestamp + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int compareTo(MessageCursor other) {
+        return ORDER.compare(this, other);
+    }
+
+    public static MessageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('_');
+            return new MessageCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
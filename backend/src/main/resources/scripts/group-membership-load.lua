@@ -0,0 +1,14 @@
+-- KEYS[1] = set to rebuild, KEYS[2] = its version key
+-- ARGV[1] = version read before the database query ('' if there was none), ARGV[2] = ttl in ms,
+-- ARGV[3..] = members
+-- Stores the set only if it is still missing and no join or leave has bumped the version since the database
+-- was read; otherwise the caller's copy may already be stale and the next read rebuilds it.
+local version = redis.call('GET', KEYS[2]) or ''
+if version ~= ARGV[1] or redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+for i = 3, #ARGV, 1000 do
+    redis.call('SADD', KEYS[1], unpack(ARGV, i, math.min(i + 999, #ARGV)))
+end
+redis.call('PEXPIRE', KEYS[1], ARGV[2])
+return 1
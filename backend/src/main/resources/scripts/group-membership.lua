@@ -0,0 +1,18 @@
+-- KEYS[1] = member set of the group, KEYS[2] = group set of the user
+-- KEYS[3] = version of the member set, KEYS[4] = version of the group set
+-- ARGV[1] = username, ARGV[2] = group id, ARGV[3] = 1 for a join, 0 for a leave, ARGV[4] = version ttl in ms
+-- Only touches sets that already exist: a missing set is rebuilt in full from the database on the next read,
+-- so creating it here with a single entry would hide the other members. The versions are bumped either way so
+-- a rebuild that read the database before this change does not store its stale copy.
+local joined = ARGV[3] == '1'
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    if joined then redis.call('SADD', KEYS[1], ARGV[1]) else redis.call('SREM', KEYS[1], ARGV[1]) end
+end
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    if joined then redis.call('SADD', KEYS[2], ARGV[2]) else redis.call('SREM', KEYS[2], ARGV[2]) end
+end
+redis.call('INCR', KEYS[3])
+redis.call('PEXPIRE', KEYS[3], ARGV[4])
+redis.call('INCR', KEYS[4])
+redis.call('PEXPIRE', KEYS[4], ARGV[4])
+return 0
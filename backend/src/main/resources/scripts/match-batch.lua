@@ -0,0 +1,45 @@
+-- KEYS[1] = bucket queue (sorted set scored by enqueue time), KEYS[2] = bucket registry
+-- ARGV[1] = waiting key prefix, ARGV[2] = paired key prefix, ARGV[3] = now (ms), ARGV[4] = entry ttl (ms)
+-- ARGV[5..n] = usernames joining this tick
+-- Returns a flat list of matched pairs: { a1, b1, a2, b2, ... }
+local now = tonumber(ARGV[3])
+local ttl = tonumber(ARGV[4])
+local matches = {}
+
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - ttl)
+
+for i = 5, #ARGV do
+    local username = ARGV[i]
+    local waitingKey = ARGV[1] .. username
+
+    if redis.call('GET', waitingKey) ~= KEYS[1] then
+        redis.call('DEL', ARGV[2] .. username)
+        local matched = false
+
+        while true do
+            local head = redis.call('ZPOPMIN', KEYS[1])
+            if #head == 0 then
+                break
+            end
+            local candidate = head[1]
+            -- Skip anyone whose entry expired or who moved to another bucket.
+            if candidate ~= username and redis.call('GET', ARGV[1] .. candidate) == KEYS[1] then
+                redis.call('DEL', ARGV[1] .. candidate, waitingKey)
+                redis.call('SET', ARGV[2] .. candidate, username, 'PX', ttl)
+                redis.call('SET', ARGV[2] .. username, candidate, 'PX', ttl)
+                table.insert(matches, username)
+                table.insert(matches, candidate)
+                matched = true
+                break
+            end
+        end
+
+        if not matched then
+            redis.call('SET', waitingKey, KEYS[1], 'PX', ttl)
+            redis.call('ZADD', KEYS[1], now, username)
+            redis.call('SADD', KEYS[2], KEYS[1])
+        end
+    end
+end
+
+return matches
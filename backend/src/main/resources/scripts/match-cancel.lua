@@ -0,0 +1,17 @@
+-- KEYS[1] = waiting key of the caller, KEYS[2] = paired key of the caller
+-- ARGV[1] = username, ARGV[2] = paired key prefix
+local queue = redis.call('GET', KEYS[1])
+if queue then
+    redis.call('ZREM', queue, ARGV[1])
+    redis.call('DEL', KEYS[1])
+end
+
+local partner = redis.call('GET', KEYS[2])
+if not partner then
+    return false
+end
+redis.call('DEL', KEYS[2])
+if redis.call('GET', ARGV[2] .. partner) == ARGV[1] then
+    redis.call('DEL', ARGV[2] .. partner)
+end
+return partner
@@ -0,0 +1,60 @@
+-- KEYS[1] = bucket registry, KEYS[2..n] = bucket queues
+-- ARGV[1] = waiting key prefix, ARGV[2] = paired key prefix, ARGV[3] = now (ms), ARGV[4] = entry ttl (ms)
+-- ARGV[5] = wait before same-purpose buckets are accepted (ms), ARGV[6] = wait before any bucket is accepted (ms)
+-- ARGV[7..n] = purpose preference of each queue in KEYS[2..n]
+-- Pairs the longest-waiting user of each bucket with a compatible user from another bucket.
+-- Both users must have waited long enough for the relaxed criteria. Returns { a1, b1, a2, b2, ... }
+local now = tonumber(ARGV[3])
+local ttl = tonumber(ARGV[4])
+local samePurposeAfter = tonumber(ARGV[5])
+local anyAfter = tonumber(ARGV[6])
+local matches = {}
+
+local function head(queue)
+    while true do
+        local entry = redis.call('ZRANGE', queue, 0, 0, 'WITHSCORES')
+        if #entry == 0 then
+            return nil, nil
+        end
+        if redis.call('GET', ARGV[1] .. entry[1]) == queue then
+            return entry[1], tonumber(entry[2])
+        end
+        redis.call('ZREM', queue, entry[1])
+    end
+end
+
+for i = 2, #KEYS do
+    redis.call('ZREMRANGEBYSCORE', KEYS[i], '-inf', now - ttl)
+end
+
+for i = 2, #KEYS do
+    local user, enqueuedAt = head(KEYS[i])
+    if user and now - enqueuedAt >= samePurposeAfter then
+        for j = 2, #KEYS do
+            if j ~= i then
+                local candidate, candidateEnqueuedAt = head(KEYS[j])
+                if candidate and candidate ~= user then
+                    local waited = now - math.max(enqueuedAt, candidateEnqueuedAt)
+                    if waited >= anyAfter or (waited >= samePurposeAfter and ARGV[5 + i] == ARGV[5 + j]) then
+                        redis.call('ZREM', KEYS[i], user)
+                        redis.call('ZREM', KEYS[j], candidate)
+                        redis.call('DEL', ARGV[1] .. user, ARGV[1] .. candidate)
+                        redis.call('SET', ARGV[2] .. user, candidate, 'PX', ttl)
+                        redis.call('SET', ARGV[2] .. candidate, user, 'PX', ttl)
+                        table.insert(matches, user)
+                        table.insert(matches, candidate)
+                        break
+                    end
+                end
+            end
+        end
+    end
+end
+
+for i = 2, #KEYS do
+    if redis.call('ZCARD', KEYS[i]) == 0 then
+        redis.call('SREM', KEYS[1], KEYS[i])
+    end
+end
+
+return matches
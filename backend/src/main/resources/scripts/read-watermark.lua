@@ -0,0 +1,15 @@
+-- KEYS[1] = watermark hash of the reader
+-- ARGV[1] = conversation partner, ARGV[2] = timestamp of the last read message (epoch micros), ARGV[3] = its id
+-- Watermarks are stored as "micros:id" and ordered by (timestamp, id), since ids are not ordered across nodes.
+-- Moves the watermark forward only; returns 1 if it advanced.
+local current = redis.call('HGET', KEYS[1], ARGV[1])
+local micros, id = tonumber(ARGV[2]), tonumber(ARGV[3])
+if current then
+    local currentMicros, currentId = string.match(current, '^(%d+):(%d+)$')
+    currentMicros, currentId = tonumber(currentMicros or '0'), tonumber(currentId or '0')
+    if micros < currentMicros or (micros == currentMicros and id <= currentId) then
+        return 0
+    end
+end
+redis.call('HSET', KEYS[1], ARGV[1], ARGV[2] .. ':' .. ARGV[3])
+return 1
@@ -0,0 +1,9 @@
+-- KEYS[1] = recent-message list of a conversation
+-- ARGV[1] = loading marker, ARGV[2] = how long the marker may live, in ms
+-- Creates the list with just a marker if it does not exist yet, so appends made while the caller reads the
+-- database land in it (RPUSHX ignores missing lists) instead of being lost.
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    redis.call('RPUSH', KEYS[1], ARGV[1])
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return 0
@@ -0,0 +1,12 @@
+-- KEYS[1] = recent-message list of a conversation
+-- ARGV[1] = number of entries the caller read before merging, ARGV[2] = capacity, ARGV[3] = ttl in ms,
+-- ARGV[4..] = merged entries, oldest first
+-- Replaces the entries the caller read (the loading marker included) with the merged ones and keeps anything
+-- appended since, which is newer than all of them.
+redis.call('LTRIM', KEYS[1], ARGV[1], -1)
+for i = #ARGV, 4, -1 do
+    redis.call('LPUSH', KEYS[1], ARGV[i])
+end
+redis.call('LTRIM', KEYS[1], -tonumber(ARGV[2]), -1)
+redis.call('PEXPIRE', KEYS[1], ARGV[3])
+return 0
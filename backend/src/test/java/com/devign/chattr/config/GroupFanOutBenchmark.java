@@ -0,0 +1,126 @@
+package com.devign.chattr.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one group message in the simple broker, for groups of 10, 1k and 50k members, while 10k other users
+ * sit in other groups. {@code perGroupTopic} publishes to {@code /topic/group.{id}}, so only members get a copy;
+ * {@code sharedTopic} is the old single {@code /topic/group} that every group member of every group received.
+ * <p>
+ * Delivery ends at a {@link Blackhole} standing in for the client outbound channel, so the numbers cover
+ * subscription matching and per-session message copies, not socket writes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupFanOutBenchmark {
+
+    private static final long GROUP_ID = 42;
+    private static final int OTHER_USERS = 10_000;
+    private static final int OTHER_GROUP_SIZE = 10;
+    private static final String SHARED_TOPIC = "/topic/group";
+
+    @Param({"10", "1000", "50000"})
+    public int members;
+
+    private SimpleBrokerMessageHandler perGroupBroker;
+    private SimpleBrokerMessageHandler sharedBroker;
+    private Message<byte[]> perGroupFrame;
+    private Message<byte[]> sharedFrame;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        MessageChannel outbound = (message, timeout) -> {
+            blackhole.consume(message);
+            return true;
+        };
+        perGroupBroker = broker(outbound);
+        sharedBroker = broker(outbound);
+        for (int i = 0; i < members; i++) {
+            subscribe(perGroupBroker, "member-" + i, GroupSubscriptionInterceptor.GROUP_TOPIC_PREFIX + GROUP_ID);
+            subscribe(sharedBroker, "member-" + i, SHARED_TOPIC);
+        }
+        for (int i = 0; i < OTHER_USERS; i++) {
+            long otherGroup = GROUP_ID + 1 + i / OTHER_GROUP_SIZE;
+            subscribe(perGroupBroker, "other-" + i, GroupSubscriptionInterceptor.GROUP_TOPIC_PREFIX + otherGroup);
+            subscribe(sharedBroker, "other-" + i, SHARED_TOPIC);
+        }
+
+        byte[] payload = ("{\"id\":4211337,\"groupId\":" + GROUP_ID + ",\"sender\":\"alice\","
+                + "\"content\":\"Anyone up for a game tonight?\",\"timestamp\":\"2025-05-01T21:04:11.123456\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        perGroupFrame = frame(GroupSubscriptionInterceptor.GROUP_TOPIC_PREFIX + GROUP_ID, payload);
+        sharedFrame = frame(SHARED_TOPIC, payload);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        perGroupBroker.stop();
+        sharedBroker.stop();
+    }
+
+    @Benchmark
+    public void perGroupTopic() {
+        perGroupBroker.handleMessage(perGroupFrame);
+    }
+
+    @Benchmark
+    public void sharedTopic() {
+        sharedBroker.handleMessage(sharedFrame);
+    }
+
+    private static SimpleBrokerMessageHandler broker(MessageChannel outbound) {
+        SimpleBrokerMessageHandler broker = new SimpleBrokerMessageHandler(new ExecutorSubscribableChannel(),
+                outbound, new ExecutorSubscribableChannel(), List.of("/topic"));
+        broker.start();
+        return broker;
+    }
+
+    private static void subscribe(SimpleBrokerMessageHandler broker, String sessionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination(destination);
+        broker.handleMessage(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+    }
+
+    private static Message<byte[]> frame(String destination, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GroupFanOutBenchmark.class.getSimpleName()).build()).run();
+    }
+}
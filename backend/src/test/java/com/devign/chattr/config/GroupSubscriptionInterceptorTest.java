@@ -0,0 +1,66 @@
+package com.devign.chattr.config;
+
+import com.devign.chattr.service.GroupMembershipIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.DefaultSubscriptionRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.security.Principal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GroupSubscriptionInterceptorTest {
+
+    private final GroupMembershipIndex groupMembershipIndex = mock(GroupMembershipIndex.class);
+    private final GroupSubscriptionInterceptor interceptor = new GroupSubscriptionInterceptor(groupMembershipIndex);
+
+    @Test
+    void membersMaySubscribeToTheirGroup() {
+        when(groupMembershipIndex.isMember(5L, "alice")).thenReturn(true);
+        Message<byte[]> subscribe = subscribe("/topic/group.5");
+
+        assertThat(interceptor.preSend(subscribe, null)).isSameAs(subscribe);
+    }
+
+    @Test
+    void nonMembersAreRejected() {
+        assertThatThrownBy(() -> interceptor.preSend(subscribe("/topic/group.5"), null))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/topic/*", "/topic/**", "/topic/group.?", "/topic/group.*", "/topic/{any}"})
+    void wildcardTopicSubscriptionsAreRejected(String destination) {
+        // Sanity check: each of these would otherwise receive /topic/group.5.
+        DefaultSubscriptionRegistry registry = new DefaultSubscriptionRegistry();
+        registry.registerSubscription(subscribe(destination));
+        assertThat(registry.findSubscriptions(message("/topic/group.5"))).isNotEmpty();
+
+        assertThatThrownBy(() -> interceptor.preSend(subscribe(destination), null))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    private static Message<byte[]> subscribe(String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId("session-1");
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination(destination);
+        accessor.setUser((Principal) () -> "alice");
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> message(String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
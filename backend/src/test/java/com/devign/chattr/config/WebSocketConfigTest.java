@@ -0,0 +1,82 @@
+package com.devign.chattr.config;
+
+import com.devign.chattr.service.PayloadEncodingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.DefaultContentTypeResolver;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class WebSocketConfigTest {
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final PayloadEncodingService payloadEncodingService = new PayloadEncodingService(jsonMapper);
+    private CompositeMessageConverter converter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        WebSocketConfig config = new WebSocketConfig(mock(WebSocketAuthInterceptor.class),
+                mock(InboundDestinationInterceptor.class), mock(PresenceInterceptor.class),
+                mock(StompRateLimitInterceptor.class), mock(GroupSubscriptionInterceptor.class),
+                mock(PayloadEncodingInterceptor.class), mock(BinaryFrameHandlerDecorator.class),
+                payloadEncodingService, mock(ObjectProvider.class), 10_000);
+
+        // Assembled the way AbstractMessageBrokerConfiguration.brokerMessageConverter does it.
+        List<MessageConverter> converters = new ArrayList<>();
+        if (config.configureMessageConverters(converters)) {
+            converters.add(new StringMessageConverter());
+            converters.add(new ByteArrayMessageConverter());
+            DefaultContentTypeResolver resolver = new DefaultContentTypeResolver();
+            resolver.setDefaultMimeType(MimeTypeUtils.APPLICATION_JSON);
+            MappingJackson2MessageConverter json = new MappingJackson2MessageConverter();
+            json.setObjectMapper(jsonMapper);
+            json.setContentTypeResolver(resolver);
+            converters.add(json);
+        }
+        converter = new CompositeMessageConverter(converters);
+    }
+
+    @Test
+    void outboundPayloadsWithoutContentTypeAreJson() {
+        Message<?> message = converter.toMessage(Map.of("unread", 3), new MessageHeaders(Map.of()));
+
+        assertThat(message).isNotNull();
+        assertThat(message.getHeaders().get(MessageHeaders.CONTENT_TYPE)).isEqualTo(MimeTypeUtils.APPLICATION_JSON);
+        assertThat(new String((byte[]) message.getPayload(), StandardCharsets.UTF_8)).isEqualTo("{\"unread\":3}");
+    }
+
+    @Test
+    void inboundFramesWithoutContentTypeAreReadAsJson() {
+        Message<byte[]> frame = MessageBuilder.withPayload("{\"content\":\"hi\"}".getBytes(StandardCharsets.UTF_8)).build();
+
+        assertThat(converter.fromMessage(frame, Map.class)).isEqualTo(Map.of("content", "hi"));
+    }
+
+    @Test
+    void inboundCborFramesAreReadAsCbor() throws Exception {
+        byte[] cbor = payloadEncodingService.getCborMapper().writeValueAsBytes(Map.of("content", "hi"));
+        Message<byte[]> frame = MessageBuilder.withPayload(cbor)
+                .setHeader(MessageHeaders.CONTENT_TYPE, PayloadEncodingService.APPLICATION_CBOR)
+                .build();
+
+        assertThat(converter.fromMessage(frame, Map.class)).isEqualTo(Map.of("content", "hi"));
+    }
+}
@@ -0,0 +1,31 @@
+package com.devign.chattr.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatMessageTest {
+
+    @Test
+    void conversationKeyIsTheSameInBothDirections() {
+        assertThat(ChatMessage.conversationKey("bob", "alice"))
+                .isEqualTo(ChatMessage.conversationKey("alice", "bob"))
+                .isEqualTo("5:alice:bob");
+    }
+
+    @Test
+    void conversationKeyCannotBeForgedWithSeparatorsInNames() {
+        assertThat(ChatMessage.conversationKey("a:b", "c"))
+                .isNotEqualTo(ChatMessage.conversationKey("a", "b:c"));
+    }
+
+    @Test
+    void conversationKeyIsSetOnPersist() {
+        ChatMessage message = ChatMessage.builder().sender("bob").receiver("alice").content("hi").build();
+
+        message.onCreate();
+
+        assertThat(message.getConversationKey()).isEqualTo("5:alice:bob");
+        assertThat(message.getTimestamp()).isNotNull();
+    }
+}
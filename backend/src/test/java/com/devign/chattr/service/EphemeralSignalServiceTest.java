@@ -0,0 +1,147 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.dto.ChatSignal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class EphemeralSignalServiceTest {
+
+    private static final String DESTINATION = "/queue/typing";
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private EphemeralSignalService service;
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void repeatsOfTheSameStateWithinTheWindowAreCoalesced() {
+        service = start(10_000, 2);
+
+        service.send(DESTINATION, signal(true));
+        service.send(DESTINATION, signal(true));
+        service.send(DESTINATION, signal(null));
+
+        verify(messagingTemplate, after(200).times(1)).convertAndSendToUser(eq("bob"), eq(DESTINATION), any());
+        assertThat(service.getStats()).containsEntry("coalesced", 2L).containsEntry("delivered", 1L);
+    }
+
+    @Test
+    void stateChangesGoOutAtOnceEvenWithinTheWindow() {
+        service = start(10_000, 2);
+
+        service.send(DESTINATION, signal(true));
+        service.send(DESTINATION, signal(false));
+
+        assertThat(delivered(2)).extracting(ChatSignal::getActive).containsExactly(true, false);
+    }
+
+    @Test
+    void sameStateIsSentAgainOnceTheWindowHasPassed() throws InterruptedException {
+        service = start(50, 2);
+
+        service.send(DESTINATION, signal(true));
+        Thread.sleep(80);
+        service.send(DESTINATION, signal(true));
+
+        verify(messagingTemplate, timeout(1_000).times(2)).convertAndSendToUser(eq("bob"), eq(DESTINATION), any());
+    }
+
+    @Test
+    void signalsForOnePairArriveInOrderAcrossLanes() {
+        service = start(10_000, 4);
+
+        List<Boolean> sent = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            boolean active = i % 2 == 0;
+            sent.add(active);
+            service.send(DESTINATION, signal(active));
+        }
+
+        assertThat(delivered(200)).extracting(ChatSignal::getActive).containsExactlyElementsOf(sent);
+    }
+
+    @Test
+    void ignoresSignalsWithoutAnotherReceiver() {
+        service = start(10_000, 2);
+
+        service.send(DESTINATION, ChatSignal.builder().sender("alice").receiver("alice").build());
+        service.send(DESTINATION, ChatSignal.builder().sender("alice").build());
+
+        verify(messagingTemplate, after(200).never()).convertAndSendToUser(anyString(), anyString(), any());
+    }
+
+    @Test
+    void sweepForgetsPairsOutsideTheWindow() throws InterruptedException {
+        service = start(10_000, 2);
+        service.send(DESTINATION, signal(true));
+        service.sweep();
+        assertThat(service.getStats()).containsEntry("tracked", 1);
+
+        service.stop();
+        service = start(20, 2);
+        service.send(DESTINATION, signal(true));
+        Thread.sleep(40);
+        service.sweep();
+        assertThat(service.getStats()).containsEntry("tracked", 0);
+    }
+
+    @Test
+    void aFullLaneEvictsActiveSignalsButNeverDropsTurningOff() {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(2, TimeUnit.SECONDS))
+                .when(messagingTemplate).convertAndSendToUser(eq("bob"), eq(DESTINATION), any());
+        service = new EphemeralSignalService(messagingTemplate, 10_000, 2, 1);
+        service.start();
+
+        service.send(DESTINATION, signal("s0", true)); // occupies the lane
+        service.send(DESTINATION, signal("s1", false));
+        service.send(DESTINATION, signal("s2", true));
+        service.send(DESTINATION, signal("s3", true)); // evicts s2
+        service.send(DESTINATION, signal("s4", false)); // evicts s3
+        service.send(DESTINATION, signal("s5", true)); // only "off" signals queued, so s5 is dropped
+        release.countDown();
+
+        assertThat(delivered(3)).extracting(ChatSignal::getSender).containsExactly("s0", "s1", "s4");
+        assertThat(service.getStats()).containsEntry("dropped", 3L);
+    }
+
+    private EphemeralSignalService start(long windowMillis, int deliveryThreads) {
+        EphemeralSignalService started = new EphemeralSignalService(messagingTemplate, windowMillis, 10_000, deliveryThreads);
+        started.start();
+        return started;
+    }
+
+    private List<ChatSignal> delivered(int count) {
+        ArgumentCaptor<ChatSignal> captor = ArgumentCaptor.forClass(ChatSignal.class);
+        verify(messagingTemplate, timeout(2_000).times(count)).convertAndSendToUser(eq("bob"), eq(DESTINATION), captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static ChatSignal signal(Boolean active) {
+        return signal("alice", active);
+    }
+
+    private static ChatSignal signal(String sender, Boolean active) {
+        return ChatSignal.builder().sender(sender).receiver("bob").active(active).build();
+    }
+}
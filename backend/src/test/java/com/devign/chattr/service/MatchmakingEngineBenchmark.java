@@ -0,0 +1,188 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.util.LatencyHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Matches per second and time-to-match of {@link MatchmakingEngine} with 10k, 100k and 1M users already waiting,
+ * spread over every gender/purpose bucket. The bucket store is in memory and pairs users the way
+ * {@code match-batch.lua} does, so the numbers cover the engine (submit queues, shard ticks, notifications) and
+ * not Redis.
+ * <p>
+ * Every arriving user finds a waiting partner, and each waiting user who is paired is replaced at the back of its
+ * bucket, so the queues stay at {@code queuedUsers} and the reported ops/s is matches/s. At most one batch per
+ * bucket is outstanding, which keeps every tick busy without letting the submit queues grow, so time-to-match
+ * is the wait for the next tick plus the batches ahead of it rather than a backlog the benchmark built up. It
+ * runs from {@link MatchmakingEngine#submit} to the arriving user's {@code /queue/match} notification; its p50
+ * and p99 are printed after every iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchmakingEngineBenchmark {
+
+    private static final long TICK_MILLIS = 50;
+    private static final int BATCH_SIZE = 500;
+    private static final String ARRIVAL_PREFIX = "arrival-";
+
+    @Param({"10000", "100000", "1000000"})
+    public int queuedUsers;
+
+    private final Map<String, Long> submittedAt = new ConcurrentHashMap<>();
+    private final AtomicLong outstanding = new AtomicLong();
+
+    private MatchmakingEngine engine;
+    private String[] queueKeys;
+    private int inFlight;
+    private volatile LatencyHistogram timeToMatch = new LatencyHistogram();
+    private long arrivals;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> keys = new ArrayList<>();
+        for (MatchmakingEngine.GenderPreference gender : MatchmakingEngine.GenderPreference.values()) {
+            for (MatchmakingEngine.Purpose purpose : MatchmakingEngine.Purpose.values()) {
+                keys.add(MatchmakingEngine.queueKey(gender, purpose));
+            }
+        }
+        queueKeys = keys.toArray(String[]::new);
+        inFlight = BATCH_SIZE * queueKeys.length;
+
+        InMemoryMatchStore store = new InMemoryMatchStore();
+        for (int i = 0; i < queuedUsers; i++) {
+            store.enqueue(queueKeys[i % queueKeys.length], "waiting-" + i);
+        }
+        SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate((message, timeout) -> {
+            matched(SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+            return true;
+        });
+        // The relaxation pass is left out: it runs once a second and only looks at the head of each bucket.
+        engine = new MatchmakingEngine(store, messagingTemplate, TICK_MILLIS, BATCH_SIZE, 0, TimeUnit.DAYS.toMillis(1));
+        engine.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.stop();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetTimeToMatch() {
+        timeToMatch = new LatencyHistogram();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printTimeToMatch() {
+        Map<String, Object> snapshot = timeToMatch.snapshot();
+        System.out.printf("time-to-match p50=%dus p99=%dus (%d matches)%n",
+                snapshot.get("p50Micros"), snapshot.get("p99Micros"), snapshot.get("count"));
+    }
+
+    @Benchmark
+    public void arrive() {
+        while (outstanding.get() >= inFlight) {
+            Thread.onSpinWait();
+        }
+        String username = ARRIVAL_PREFIX + arrivals++;
+        outstanding.incrementAndGet();
+        submittedAt.put(username, System.nanoTime());
+        engine.submit(username, queueKeys[ThreadLocalRandom.current().nextInt(queueKeys.length)]);
+    }
+
+    private void matched(String destination) {
+        // "/user/{name}/queue/match"; only the arriving side of a pair was timed.
+        String username = destination.substring("/user/".length(), destination.indexOf('/', "/user/".length()));
+        if (!username.startsWith(ARRIVAL_PREFIX)) {
+            return;
+        }
+        Long startedAt = submittedAt.remove(username);
+        if (startedAt != null) {
+            timeToMatch.record(System.nanoTime() - startedAt);
+            outstanding.decrementAndGet();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MatchmakingEngineBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * {@code match-batch.lua} over in-memory FIFO queues, minus entry TTLs and the paired keys that
+     * {@code /api/v1/match/status} reads. Each waiting user who is paired is replaced by a new one.
+     */
+    private static class InMemoryMatchStore implements MatchStore {
+
+        private final Map<String, ArrayDeque<String>> queues = new ConcurrentHashMap<>();
+        private final Map<String, String> waiting = new ConcurrentHashMap<>();
+        private final AtomicLong refills = new AtomicLong();
+
+        void enqueue(String queueKey, String username) {
+            waiting.put(username, queueKey);
+            queues.computeIfAbsent(queueKey, key -> new ArrayDeque<>()).addLast(username);
+        }
+
+        @Override
+        public List<String> join(String queueKey, Collection<String> joining, long now) {
+            ArrayDeque<String> queue = queues.computeIfAbsent(queueKey, key -> new ArrayDeque<>());
+            List<String> matches = new ArrayList<>();
+            synchronized (queue) {
+                for (String username : joining) {
+                    if (queueKey.equals(waiting.get(username))) {
+                        continue;
+                    }
+                    boolean paired = false;
+                    String candidate;
+                    while ((candidate = queue.pollFirst()) != null) {
+                        // Skip anyone who moved to another bucket.
+                        if (!candidate.equals(username) && waiting.remove(candidate, queueKey)) {
+                            matches.add(username);
+                            matches.add(candidate);
+                            enqueue(queueKey, "waiting-refill-" + refills.incrementAndGet());
+                            paired = true;
+                            break;
+                        }
+                    }
+                    if (!paired) {
+                        enqueue(queueKey, username);
+                    }
+                }
+            }
+            return matches;
+        }
+
+        @Override
+        public List<String> relax(long now) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.devign.chattr.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MatchmakingEngineTest {
+
+    @Test
+    void parsesPreferencesCaseInsensitively() {
+        assertThat(MatchmakingEngine.parse(MatchmakingEngine.GenderPreference.class, "female"))
+                .isEqualTo(MatchmakingEngine.GenderPreference.FEMALE);
+        assertThat(MatchmakingEngine.parse(MatchmakingEngine.Purpose.class, "Dating"))
+                .isEqualTo(MatchmakingEngine.Purpose.DATING);
+    }
+
+    @Test
+    void rejectsPreferencesOutsideTheWhitelist() {
+        assertThatThrownBy(() -> MatchmakingEngine.parse(MatchmakingEngine.Purpose.class, "chat:extra"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MatchmakingEngine.parse(MatchmakingEngine.GenderPreference.class, "nobody-" + 42))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MatchmakingEngine.parse(MatchmakingEngine.Purpose.class, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void purposeIsReadBackFromTheQueueKey() {
+        String queueKey = MatchmakingEngine.queueKey(MatchmakingEngine.GenderPreference.ANY,
+                MatchmakingEngine.Purpose.FRIENDSHIP);
+
+        assertThat(queueKey).isEqualTo("match:queue:ANY:FRIENDSHIP");
+        assertThat(MatchmakingEngine.purposeOf(queueKey)).isEqualTo("FRIENDSHIP");
+    }
+
+    @Test
+    void ticksHandSubmittedUsersToTheStoreAndNotifyBothSidesOfEachPair() {
+        MatchStore store = mock(MatchStore.class);
+        SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        String queueKey = MatchmakingEngine.queueKey(MatchmakingEngine.GenderPreference.ANY,
+                MatchmakingEngine.Purpose.CHAT);
+        when(store.join(eq(queueKey), anyCollection(), anyLong())).thenReturn(List.of("alice", "bob"));
+        MatchmakingEngine engine = new MatchmakingEngine(store, messagingTemplate, 10, 500, 1, 60_000);
+        engine.start();
+        try {
+            engine.submit("alice", queueKey);
+            engine.submit("carol", queueKey);
+            engine.cancel("carol");
+
+            verify(store, timeout(1_000)).join(eq(queueKey), eq(Set.of("alice")), anyLong());
+            verify(messagingTemplate, timeout(1_000)).convertAndSendToUser("alice", "/queue/match", "alice matched with bob");
+            verify(messagingTemplate, timeout(1_000)).convertAndSendToUser("bob", "/queue/match", "bob matched with alice");
+            verify(store, after(100).times(1)).join(eq(queueKey), anyCollection(), anyLong());
+        } finally {
+            engine.stop();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.model.ChatMessage;
+import com.devign.chattr.model.GroupMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class MessagePersistenceServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private MessagePersistenceService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MessagePersistenceService(jdbcTemplate, MessagePersistenceService.AckMode.NONE,
+                100, 10, 20, 50, 1000, false);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.stop();
+    }
+
+    @Test
+    void rejectsOversizedContentBeforeAllocatingAnId() {
+        ChatMessage message = ChatMessage.builder()
+                .sender("alice")
+                .receiver("bob")
+                .content("x".repeat(MessagePersistenceService.MAX_CONTENT_LENGTH + 1))
+                .build();
+
+        assertThatThrownBy(() -> service.save(message)).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void rejectsMissingContentAndReceiver() {
+        assertThatThrownBy(() -> service.save(ChatMessage.builder().sender("alice").receiver("bob").build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.save(ChatMessage.builder().sender("alice").content("hi").build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.save(GroupMessage.builder().sender("alice").content("hi").build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
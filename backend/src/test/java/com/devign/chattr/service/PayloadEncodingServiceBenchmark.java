@@ -0,0 +1,122 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.dto.ChatSignal;
+import com.devign.chattr.dto.ReadReceiptEvent;
+import com.devign.chattr.model.ChatMessage;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU per message for the outbound encodings: JSON (what every session gets), CBOR written directly, and the
+ * JSON-to-CBOR transcode that CBOR sessions actually go through. {@link #main} first prints the encoded size of
+ * each payload in both encodings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadEncodingServiceBenchmark {
+
+    @Param({"chat", "typing", "receipt"})
+    public String payloadType;
+
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+    private PayloadEncodingService payloadEncodingService;
+    private Object payload;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        jsonMapper = mapper(new JsonFactory());
+        payloadEncodingService = new PayloadEncodingService(jsonMapper);
+        cborMapper = payloadEncodingService.getCborMapper();
+        payload = payload(payloadType);
+        json = jsonMapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] json() throws JsonProcessingException {
+        return jsonMapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] cbor() throws JsonProcessingException {
+        return cborMapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] transcode() {
+        // A fresh array each time; the service caches by array identity.
+        return payloadEncodingService.toCbor(json.clone());
+    }
+
+    /**
+     * Configured like Boot's default mapper (ISO dates). Built by hand because Jackson2ObjectMapperBuilder needs
+     * jackson-databind 2.14+, and the pom pins 2.13.3.
+     */
+    static ObjectMapper mapper(JsonFactory factory) {
+        return new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    static Object payload(String type) {
+        return switch (type) {
+            case "chat" -> ChatMessage.builder()
+                    .id(4_211_337L)
+                    .sender("alice")
+                    .receiver("bob")
+                    .content("Anyone up for a game tonight? I can host from nine.")
+                    .timestamp(LocalDateTime.of(2025, 5, 1, 21, 4, 11, 123_456_000))
+                    .isRead(false)
+                    .isDelivered(true)
+                    .build();
+            case "typing" -> ChatSignal.builder()
+                    .sender("alice")
+                    .receiver("bob")
+                    .active(true)
+                    .build();
+            case "receipt" -> ReadReceiptEvent.builder()
+                    .reader("bob")
+                    .partner("alice")
+                    .lastReadMessageId(4_211_337L)
+                    .lastReadAt(LocalDateTime.of(2025, 5, 1, 21, 4, 11, 123_456_000))
+                    .build();
+            default -> throw new IllegalArgumentException("Unknown payload type " + type);
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException, JsonProcessingException {
+        ObjectMapper jsonMapper = mapper(new JsonFactory());
+        ObjectMapper cborMapper = new PayloadEncodingService(jsonMapper).getCborMapper();
+        for (String type : new String[]{"chat", "typing", "receipt"}) {
+            Object payload = payload(type);
+            System.out.printf("%-8s json=%d bytes cbor=%d bytes%n", type,
+                    jsonMapper.writeValueAsBytes(payload).length, cborMapper.writeValueAsBytes(payload).length);
+        }
+        new Runner(new OptionsBuilder().include(PayloadEncodingServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
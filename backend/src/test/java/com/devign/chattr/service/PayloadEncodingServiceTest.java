@@ -0,0 +1,61 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.model.ChatMessage;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadEncodingServiceTest {
+
+    private final ObjectMapper jsonMapper = PayloadEncodingServiceBenchmark.mapper(new JsonFactory());
+    private final PayloadEncodingService service = new PayloadEncodingService(jsonMapper);
+
+    @Test
+    void cborCarriesTheSameFieldsAsJson() throws Exception {
+        ChatMessage message = ChatMessage.builder()
+                .id(7L)
+                .sender("alice")
+                .receiver("bob")
+                .content("hi")
+                .timestamp(LocalDateTime.of(2025, 5, 1, 21, 4, 11))
+                .build();
+
+        JsonNode fromCbor = service.getCborMapper().readTree(service.getCborMapper().writeValueAsBytes(message));
+
+        assertThat(fromCbor).isEqualTo(jsonMapper.readTree(jsonMapper.writeValueAsBytes(message)));
+        assertThat(fromCbor.get("timestamp").asText()).isEqualTo("2025-05-01T21:04:11");
+    }
+
+    @Test
+    void transcodesJsonPayloadsToCbor() throws Exception {
+        byte[] json = "{\"sender\":\"alice\",\"active\":false}".getBytes();
+
+        byte[] cbor = service.toCbor(json);
+
+        assertThat(service.getCborMapper().readTree(cbor)).isEqualTo(jsonMapper.readTree(json));
+        assertThat(service.toCbor(json)).isSameAs(cbor);
+    }
+
+    @Test
+    void grantsCborOnlyOnBinaryCapableSessions() {
+        Map<String, Object> nativeSession = Map.of(PayloadEncodingService.BINARY_FRAMES_ATTRIBUTE, true);
+
+        assertThat(service.negotiate("sockjs", Map.of(), PayloadEncodingService.APPLICATION_CBOR))
+                .isEqualTo(MimeTypeUtils.APPLICATION_JSON);
+        assertThat(service.negotiate("native-json", nativeSession, null))
+                .isEqualTo(MimeTypeUtils.APPLICATION_JSON);
+        assertThat(service.negotiate("native-cbor", nativeSession, PayloadEncodingService.APPLICATION_CBOR))
+                .isEqualTo(PayloadEncodingService.APPLICATION_CBOR);
+
+        assertThat(service.isCbor("sockjs")).isFalse();
+        assertThat(service.isCbor("native-json")).isFalse();
+        assertThat(service.isCbor("native-cbor")).isTrue();
+    }
+}
@@ -0,0 +1,97 @@
+package com.devign.chattr.service;
+
+import com.devign.chattr.model.ChatMessage;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of delivering one chat message to {@code recipients} user destinations, converting the payload for
+ * every recipient (the old path) against encoding it once with {@link PreEncodedMessageSender}.
+ * <p>
+ * The outbound channel only hands each message to a {@link Blackhole}, so the numbers cover conversion and
+ * message building, not the broker. {@link #main} runs with the GC profiler; {@code gc.alloc.rate.norm} is the
+ * allocation per fan-out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreEncodedMessageSenderBenchmark {
+
+    private static final String DESTINATION = "/queue/messages";
+
+    @Param({"1", "100", "1000", "10000"})
+    public int recipients;
+
+    private SimpMessagingTemplate messagingTemplate;
+    private PreEncodedMessageSender sender;
+    private String[] usernames;
+    private ChatMessage message;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        messagingTemplate = new SimpMessagingTemplate((outbound, timeout) -> {
+            blackhole.consume(outbound);
+            return true;
+        });
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(PayloadEncodingServiceBenchmark.mapper(new JsonFactory()));
+        messagingTemplate.setMessageConverter(converter);
+        sender = new PreEncodedMessageSender(messagingTemplate);
+
+        usernames = new String[recipients];
+        for (int i = 0; i < recipients; i++) {
+            usernames[i] = "user-" + i;
+        }
+        message = ChatMessage.builder()
+                .id(4_211_337L)
+                .sender("alice")
+                .receiver("group-42")
+                .content("Anyone up for a game tonight? I can host from nine.")
+                .timestamp(LocalDateTime.of(2025, 5, 1, 21, 4, 11))
+                .isRead(false)
+                .isDelivered(true)
+                .build();
+    }
+
+    @Benchmark
+    public void convertPerRecipient() {
+        for (String username : usernames) {
+            messagingTemplate.convertAndSendToUser(username, DESTINATION, message);
+        }
+    }
+
+    @Benchmark
+    public void encodeOnce() {
+        sender.sendToUsers(DESTINATION, sender.encode(message), usernames);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PreEncodedMessageSenderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,142 @@
+package com.devign.chattr.service;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Latency the limiter adds to an admitted request, in REDIS mode (a compare-and-swap per call) and HYBRID mode
+ * (local tokens, reconciled every few calls), spread over few busy clients or many quiet ones. A client seen less
+ * often than {@code max-unsynchronized-ms} reconciles on every call, so HYBRID only pays off for busy clients.
+ * <p>
+ * The bucket store is an in-memory compare-and-swap map that can park for {@code roundTripMicros} per remote
+ * call to stand in for Redis; parking overshoots short waits by some tens of microseconds, so treat the non-zero
+ * case as an upper bound. JMH drives the limiter flat out rather than at a fixed request rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RateLimiterServiceBenchmark {
+
+    // Generous enough that every call is admitted, so only the bookkeeping is measured.
+    private static final RateLimiterService.Policy POLICY =
+            new RateLimiterService.Policy("benchmark", 1_000_000, Duration.ofSeconds(1));
+
+    @Param({"REDIS", "HYBRID"})
+    public String mode;
+
+    @Param({"0", "200"})
+    public long roundTripMicros;
+
+    @Param({"10", "10000"})
+    public int clientCount;
+
+    private RateLimiterService rateLimiterService;
+    private String[] clients;
+
+    @Setup
+    public void setUp() {
+        InMemoryProxyManager proxyManager = new InMemoryProxyManager(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        rateLimiterService = new RateLimiterService(proxyManager, mode, clientCount, 2, 500);
+        clients = new String[clientCount];
+        for (int i = 0; i < clientCount; i++) {
+            clients[i] = "10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @Benchmark
+    public boolean tryConsume() {
+        return rateLimiterService.tryConsume(POLICY, clients[ThreadLocalRandom.current().nextInt(clientCount)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimiterServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static class InMemoryProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
+
+        private final Map<String, byte[]> states = new ConcurrentHashMap<>();
+        private final long roundTripNanos;
+
+        InMemoryProxyManager(long roundTripNanos) {
+            super(ClientSideConfig.getDefault());
+            this.roundTripNanos = roundTripNanos;
+        }
+
+        @Override
+        protected CompareAndSwapOperation beginCompareAndSwapOperation(String key) {
+            return new CompareAndSwapOperation() {
+                @Override
+                public Optional<byte[]> getStateData(Optional<Long> timeoutNanos) {
+                    roundTrip();
+                    return Optional.ofNullable(states.get(key));
+                }
+
+                @Override
+                public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState,
+                                              Optional<Long> timeoutNanos) {
+                    roundTrip();
+                    return originalData == null
+                            ? states.putIfAbsent(key, newData) == null
+                            : states.replace(key, originalData, newData);
+                }
+            };
+        }
+
+        @Override
+        protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void removeProxy(String key) {
+            states.remove(key);
+        }
+
+        @Override
+        protected CompletableFuture<Void> removeAsync(String key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isAsyncModeSupported() {
+            return false;
+        }
+
+        private void roundTrip() {
+            if (roundTripNanos > 0) {
+                LockSupport.parkNanos(roundTripNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.devign.chattr.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WriteBehindQueueTest {
+
+    @Test
+    void failedBatchIsRetriedRowByRowSoOnlyTheBadRowIsLost() throws Exception {
+        List<String> written = new CopyOnWriteArrayList<>();
+        WriteBehindQueue<String> queue = new WriteBehindQueue<>("test", 100, 10, 200, false, rows -> {
+            if (rows.contains("bad")) {
+                throw new IllegalStateException("value too long");
+            }
+            written.addAll(rows);
+        });
+
+        CompletableFuture<Void> first = queue.offer("a", 100);
+        CompletableFuture<Void> bad = queue.offer("bad", 100);
+        CompletableFuture<Void> last = queue.offer("b", 100);
+        queue.start();
+        try {
+            first.get(5, TimeUnit.SECONDS);
+            last.get(5, TimeUnit.SECONDS);
+            assertThatThrownBy(() -> bad.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+            assertThat(written).containsExactly("a", "b");
+        } finally {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void writesBatchOnceBatchSizeIsReached() throws Exception {
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        WriteBehindQueue<String> queue = new WriteBehindQueue<>("test", 100, 3, 10_000, false, batches::add);
+        queue.start();
+        try {
+            CompletableFuture<Void> written = null;
+            for (String row : List.of("a", "b", "c")) {
+                written = queue.offer(row, 100);
+            }
+            written.get(5, TimeUnit.SECONDS);
+            assertThat(batches).containsExactly(List.of("a", "b", "c"));
+        } finally {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void offerReturnsNullWhenQueueStaysFull() throws Exception {
+        WriteBehindQueue<String> queue = new WriteBehindQueue<>("test", 1, 10, 10, false, rows -> { });
+        assertThat(queue.offer("a", 10)).isNotNull();
+        assertThat(queue.offer("b", 10)).isNull();
+        queue.stop();
+    }
+}
@@ -0,0 +1,62 @@
+package com.devign.chattr.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsAnAddedValueAsAbsent() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("token-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("token-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheConfiguredRate() {
+        assertThat(falsePositiveRate(new BloomFilter(10_000, 0.01), 10_000)).isLessThan(0.02);
+        assertThat(falsePositiveRate(new BloomFilter(10_000, 0.001), 10_000)).isLessThan(0.002);
+    }
+
+    @Test
+    void lowerConfiguredRateGivesFewerFalsePositives() {
+        double loose = falsePositiveRate(new BloomFilter(10_000, 0.05), 10_000);
+        double tight = falsePositiveRate(new BloomFilter(10_000, 0.001), 10_000);
+
+        assertThat(tight).isLessThan(loose);
+    }
+
+    @Test
+    void overfilledFilterLosesItsFalsePositiveBound() {
+        // Sizing follows expectedInsertions, which is why TokenRevocationService rebuilds the filter as it grows.
+        assertThat(falsePositiveRate(new BloomFilter(1_000, 0.01), 20_000)).isGreaterThan(0.5);
+    }
+
+    @Test
+    void degenerateSizesStillWork() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+        filter.add("only");
+
+        assertThat(filter.mightContain("only")).isTrue();
+    }
+
+    private static double falsePositiveRate(BloomFilter filter, int insertions) {
+        for (int i = 0; i < insertions; i++) {
+            filter.add("token-" + i);
+        }
+        int probes = 100_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        return (double) falsePositives / probes;
+    }
+}
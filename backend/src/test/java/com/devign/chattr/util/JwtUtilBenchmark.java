@@ -0,0 +1,68 @@
+package com.devign.chattr.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-request cost of {@link JwtUtil#verifyToken} with the verified-token cache hit (one client reusing its
+ * token) and missed (a token the node has not seen yet, so the HMAC signature is checked).
+ * <p>
+ * The cold case cycles through more distinct tokens than the cache holds, so every call misses; it also pays
+ * the occasional eviction, as a node seeing that many logins would. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.devign.chattr.util.JwtUtilBenchmark}
+ * or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtUtilBenchmark {
+
+    private static final int COLD_TOKENS = 200_000;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private String warmToken;
+    private String[] coldTokens;
+
+    @Setup
+    public void setUp() {
+        warmToken = JwtUtil.generateToken("warm-user");
+        JwtUtil.verifyToken(warmToken);
+        coldTokens = new String[COLD_TOKENS];
+        for (int i = 0; i < COLD_TOKENS; i++) {
+            coldTokens[i] = JwtUtil.generateToken("user-" + i);
+        }
+    }
+
+    @Benchmark
+    public JwtUtil.VerifiedToken warm() {
+        return JwtUtil.verifyToken(warmToken);
+    }
+
+    @Benchmark
+    public JwtUtil.VerifiedToken cold() {
+        return JwtUtil.verifyToken(coldTokens[Math.floorMod(next.getAndIncrement(), COLD_TOKENS)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtUtilBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package com.devign.chattr.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    private static final long MICROS = 1_000;
+
+    @Test
+    void emptySnapshotIsAllZero() {
+        assertThat(new LatencyHistogram().snapshot())
+                .containsEntry("count", 0L)
+                .containsEntry("meanMicros", 0L)
+                .containsEntry("p50Micros", 0L)
+                .containsEntry("p99Micros", 0L)
+                .containsEntry("maxMicros", 0L);
+    }
+
+    @Test
+    void reportsCountMeanAndExactMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100 * MICROS);
+        }
+        histogram.record(10_000 * MICROS);
+
+        assertThat(histogram.snapshot())
+                .containsEntry("count", 100L)
+                .containsEntry("meanMicros", 199L)
+                .containsEntry("maxMicros", 10_000L);
+    }
+
+    @Test
+    void percentilesAreTheUpperBoundOfTheirPowerOfTwoBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(100 * MICROS);
+        }
+        histogram.record(10_000 * MICROS);
+        histogram.record(10_000 * MICROS);
+
+        Map<String, Object> snapshot = histogram.snapshot();
+        assertThat(snapshot.get("p50Micros")).isEqualTo(128L);
+        assertThat(snapshot.get("p99Micros")).isEqualTo(16_384L);
+    }
+
+    @Test
+    void subMicrosecondAndNegativeSamplesLandInTheFirstBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(999);
+        histogram.record(-5 * MICROS);
+
+        assertThat(histogram.snapshot())
+                .containsEntry("count", 2L)
+                .containsEntry("p99Micros", 0L)
+                .containsEntry("maxMicros", 0L);
+    }
+
+    @Test
+    void hugeSamplesAreClampedToTheLastBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+
+        assertThat(histogram.snapshot())
+                .containsEntry("p50Micros", 1L << 39)
+                .containsEntry("maxMicros", Long.MAX_VALUE / MICROS);
+    }
+
+    @Test
+    void concurrentRecordsAreAllCounted() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(50 * MICROS);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(histogram.snapshot())
+                .containsEntry("count", 40_000L)
+                .containsEntry("meanMicros", 50L)
+                .containsEntry("p50Micros", 64L);
+    }
+}
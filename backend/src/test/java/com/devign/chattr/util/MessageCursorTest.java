@@ -0,0 +1,56 @@
+package com.devign.chattr.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageCursorTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2025, 5, 1, 21, 4, 11, 123_456_000);
+
+    @Test
+    void roundTripsThroughItsEncodedForm() {
+        MessageCursor cursor = new MessageCursor(T, 4_211_337L);
+
+        assertThat(MessageCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsWholeSecondTimestamps() {
+        // LocalDateTime.toString drops zero seconds and fractions, so the parser has to accept the short form.
+        MessageCursor cursor = new MessageCursor(LocalDateTime.of(2025, 5, 1, 21, 4), 7L);
+
+        assertThat(MessageCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodedFormIsUrlSafe() {
+        assertThat(new MessageCursor(T, Long.MAX_VALUE).encode()).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatThrownBy(() -> MessageCursor.decode("not a cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MessageCursor.decode("MjAyNS0wNS0wMQ"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ordersByTimestampThenId() {
+        MessageCursor earlier = new MessageCursor(T.minusNanos(1_000), 9L);
+        MessageCursor sameTimeLowerId = new MessageCursor(T, 3L);
+        MessageCursor sameTimeHigherId = new MessageCursor(T, 5L);
+        List<MessageCursor> cursors = new ArrayList<>(List.of(sameTimeHigherId, earlier, sameTimeLowerId));
+
+        Collections.sort(cursors);
+
+        assertThat(cursors).containsExactly(earlier, sameTimeLowerId, sameTimeHigherId);
+    }
+}
@@ -0,0 +1,61 @@
+-- Seeds 10M chat messages and times the history queries against them.
+--
+-- Run against a scratch database whose schema the app has already created (ddl-auto: update):
+--   psql -d chattr_bench -f chat-history-10m.sql
+--
+-- Conversation 0 holds 1M messages; the other 9M are spread over 9,999 conversations of ~900 each.
+-- Seeding takes a few minutes; the EXPLAIN output is what to compare.
+
+\timing on
+
+truncate chat_messages;
+
+insert into chat_messages (id, sender, receiver, content, conversation_key, timestamp, is_read, is_delivered)
+select g,
+       case when g % 2 = 0 then a else b end,
+       case when g % 2 = 0 then b else a end,
+       'message ' || g,
+       length(a) || ':' || a || ':' || b,
+       timestamp '2025-01-01' + g * interval '100 milliseconds',
+       true,
+       true
+from (
+    select g,
+           'user' || lpad(c::text, 5, '0') as a,
+           'user' || lpad((c + 10000)::text, 5, '0') as b
+    from (
+        select g, case when g <= 1000000 then 0 else g % 9999 + 1 end as c
+        from generate_series(1, 10000000) as g
+    ) s
+) t;
+
+vacuum analyze chat_messages;
+
+-- Old endpoint: one direction, whole conversation, no limit.
+explain (analyze, buffers)
+select * from chat_messages where sender = 'user00000' and receiver = 'user10000';
+
+-- Latest page of the 1M-message conversation.
+explain (analyze, buffers)
+select * from chat_messages
+where conversation_key = '9:user00000:user10000'
+order by timestamp desc, id desc
+limit 50;
+
+-- A page from the middle of it ("before" cursor).
+explain (analyze, buffers)
+select * from chat_messages
+where conversation_key = '9:user00000:user10000'
+  and timestamp <= timestamp '2025-01-01' + 500000 * interval '100 milliseconds'
+  and (timestamp < timestamp '2025-01-01' + 500000 * interval '100 milliseconds' or id < 500000)
+order by timestamp desc, id desc
+limit 50;
+
+-- Catching up from the same point ("after" cursor).
+explain (analyze, buffers)
+select * from chat_messages
+where conversation_key = '9:user00000:user10000'
+  and timestamp >= timestamp '2025-01-01' + 500000 * interval '100 milliseconds'
+  and (timestamp > timestamp '2025-01-01' + 500000 * interval '100 milliseconds' or id > 500000)
+order by timestamp asc, id asc
+limit 50;